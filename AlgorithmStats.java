@@ -0,0 +1,230 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Counters, wall time and allocation of every CsrGraph search, kept as the last RECENT queries plus per-algorithm
+// histograms, and emitted as JFR events. Off unless started with -Dgraph.stats=true: ENABLED is then a constant
+// false and the JIT drops the reporting, so searches stay allocation-free. Searches count in locals and report
+// once when they finish, each thread into its own recorder, so parallel searches do not queue on one lock
+public class AlgorithmStats {
+
+    public static final boolean ENABLED = Boolean.getBoolean("graph.stats");
+
+    private static final int RECENT = 256;
+    private static final int BUCKETS = 40;
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    // finished is the System.nanoTime() the search ended at, which orders queries across threads
+    public record Query(String algorithm, int source, long visited, long scanned, long pushes, long pops,
+                        long decreases, long stale, long nanos, long allocated, long finished) {
+    }
+
+    @Name("graphcanvas.Search")
+    @Label("Graph Search")
+    @Category("Graph Canvas")
+    static class SearchEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Source")
+        int source;
+        @Label("Vertices Visited")
+        long visited;
+        @Label("Edges Scanned")
+        long scanned;
+        @Label("Pushes")
+        long pushes;
+        @Label("Pops")
+        long pops;
+        @Label("Decrease-Keys")
+        long decreases;
+        @Label("Stale Entries Skipped")
+        long stale;
+        @Label("Allocated Bytes")
+        long allocated;
+    }
+
+    // Totals for one algorithm, with log2 histograms of wall time in microseconds and of vertices visited
+    private static class Aggregate {
+        long queries;
+        long nanos;
+        long visited;
+        long scanned;
+        long allocated;
+        final long[] micros = new long[BUCKETS];
+        final long[] reached = new long[BUCKETS];
+    }
+
+    // One per thread that has searched; its lock is only contended while the console reads it
+    private static class Recorder {
+        final Query[] recent = new Query[RECENT];
+        long recorded;
+        final Map<String, Aggregate> aggregates = new TreeMap<>();
+
+        synchronized void record(Query query) {
+            recent[(int) (recorded++ % RECENT)] = query;
+            Aggregate aggregate = aggregates.computeIfAbsent(query.algorithm(), k -> new Aggregate());
+            aggregate.queries++;
+            aggregate.nanos += query.nanos();
+            aggregate.visited += query.visited();
+            aggregate.scanned += query.scanned();
+            aggregate.allocated += query.allocated();
+            aggregate.micros[bucket(query.nanos() / 1000)]++;
+            aggregate.reached[bucket(query.visited())]++;
+        }
+
+        synchronized void copyRecent(List<Query> into) {
+            for (long i = Math.max(0, recorded - RECENT); i < recorded; i++) {
+                into.add(recent[(int) (i % RECENT)]);
+            }
+        }
+
+        synchronized void addTo(Map<String, Aggregate> totals) {
+            for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+                Aggregate from = entry.getValue();
+                Aggregate to = totals.computeIfAbsent(entry.getKey(), k -> new Aggregate());
+                to.queries += from.queries;
+                to.nanos += from.nanos;
+                to.visited += from.visited;
+                to.scanned += from.scanned;
+                to.allocated += from.allocated;
+                for (int b = 0; b < BUCKETS; b++) {
+                    to.micros[b] += from.micros[b];
+                    to.reached[b] += from.reached[b];
+                }
+            }
+        }
+
+        synchronized void clear() {
+            recorded = 0;
+            aggregates.clear();
+        }
+    }
+
+    private static final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+        Recorder created = new Recorder();
+        recorders.add(created);
+        return created;
+    });
+
+    // Started when a search begins and finished once it ends; one per search, only when ENABLED
+    public static class Probe {
+        private final SearchEvent event = new SearchEvent();
+        private final long begin;
+        private final long allocated;
+
+        private Probe() {
+            event.begin();
+            allocated = allocatedBytes();
+            begin = System.nanoTime();
+        }
+
+        public void finish(String algorithm, int source, long visited, long scanned, long pushes, long pops,
+                           long decreases, long stale) {
+            long end = System.nanoTime();
+            long nanos = end - begin;
+            long bytes = Math.max(0, allocatedBytes() - allocated);
+            event.end();
+            if (event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.source = source;
+                event.visited = visited;
+                event.scanned = scanned;
+                event.pushes = pushes;
+                event.pops = pops;
+                event.decreases = decreases;
+                event.stale = stale;
+                event.allocated = bytes;
+                event.commit();
+            }
+            recorder.get().record(new Query(algorithm, source, visited, scanned, pushes, pops, decreases, stale,
+                    nanos, bytes, end));
+        }
+    }
+
+    public static Probe start() {
+        return new Probe();
+    }
+
+    // The last count queries of all threads, oldest first
+    public static List<Query> getRecent(int count) {
+        List<Query> queries = new ArrayList<>();
+        for (Recorder each : recorders) {
+            each.copyRecent(queries);
+        }
+        queries.sort(Comparator.comparingLong(Query::finished));
+        int shown = Math.min(Math.min(count, RECENT), queries.size());
+        return new ArrayList<>(queries.subList(queries.size() - shown, queries.size()));
+    }
+
+    public static long getRecorded() {
+        long recorded = 0;
+        for (Recorder each : recorders) {
+            synchronized (each) {
+                recorded += each.recorded;
+            }
+        }
+        return recorded;
+    }
+
+    public static void reset() {
+        for (Recorder each : recorders) {
+            each.clear();
+        }
+    }
+
+    public static String summarize() {
+        Map<String, Aggregate> aggregates = new TreeMap<>();
+        for (Recorder each : recorders) {
+            each.addTo(aggregates);
+        }
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            out.append(entry.getKey()).append(": ").append(aggregate.queries).append(" queries, ")
+                    .append(String.format("%.3f", aggregate.nanos / 1e6 / aggregate.queries)).append(" ms, ")
+                    .append(aggregate.visited / aggregate.queries).append(" visited, ")
+                    .append(aggregate.scanned / aggregate.queries).append(" scanned, ")
+                    .append(aggregate.allocated / aggregate.queries).append(" bytes on average\n");
+            appendHistogram(out, "  time (us)", aggregate.micros, aggregate.queries);
+            appendHistogram(out, "  visited", aggregate.reached, aggregate.queries);
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String title, long[] buckets, long total) {
+        out.append(title).append('\n');
+        for (int b = 0; b < BUCKETS; b++) {
+            if (buckets[b] == 0) continue;
+            String range = b == 0 ? "0" : (1L << (b - 1)) + "-" + ((1L << b) - 1);
+            out.append(String.format("    %-24s %8d ", range, buckets[b]))
+                    .append("#".repeat((int) Math.ceil(30.0 * buckets[b] / total))).append('\n');
+        }
+    }
+
+    // 0 for 0, otherwise 1 + floor(log2(value))
+    private static int bucket(long value) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, value)));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean;
+        }
+        return null;
+    }
+}
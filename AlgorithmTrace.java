@@ -0,0 +1,60 @@
+import java.util.Arrays;
+
+// Event log of one search, for playing it back later. Every event is packed into a long with its type and the
+// edge it concerns, so a run over millions of edges costs eight bytes an event and no objects
+public class AlgorithmTrace {
+
+    // to is reached for the first time, over the edge from -> to; from is -1 for the source
+    public static final int VISIT = 0;
+    // A better way to an already reached to was found, over the edge from -> to
+    public static final int RELAX = 1;
+    // to is done, and from is its parent in the final tree
+    public static final int SETTLE = 2;
+
+    private static final int MAX_EVENTS = Integer.MAX_VALUE - 8;
+
+    private final int source;
+    private final int numVertex;
+    private long[] events = new long[1024];
+    private int size;
+
+    public AlgorithmTrace(int source, int numVertex) {
+        this.source = source;
+        this.numVertex = numVertex;
+    }
+
+    public void add(int type, int from, int to) {
+        if (size == events.length) {
+            if (size == MAX_EVENTS) {
+                throw new IllegalStateException("Trace longer than " + MAX_EVENTS + " events");
+            }
+            events = Arrays.copyOf(events, (int) Math.min(MAX_EVENTS, 2L * size));
+        }
+        // Type in the top two bits, then from + 1 and to in 31 bits each
+        events[size++] = ((long) type << 62) | ((long) (from + 1) << 31) | to;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getNumVertex() {
+        return numVertex;
+    }
+
+    public int getType(int event) {
+        return (int) (events[event] >>> 62);
+    }
+
+    public int getFrom(int event) {
+        return (int) ((events[event] >>> 31) & 0x7fffffffL) - 1;
+    }
+
+    public int getTo(int event) {
+        return (int) (events[event] & 0x7fffffffL);
+    }
+}
@@ -0,0 +1,36 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs one single-source search per vertex across a fork-join pool, streaming each row into a DistanceMatrix
+public class AllPairsShortestPaths {
+
+    public static DistanceMatrix compute(CsrGraph graph, Path path) throws IOException {
+        return compute(graph, path, ForkJoinPool.commonPool());
+    }
+
+    public static DistanceMatrix compute(CsrGraph graph, Path path, ForkJoinPool pool) throws IOException {
+        int n = graph.getNumVertex();
+        DistanceMatrix matrix = DistanceMatrix.create(path, n);
+        // The workers are pool threads, so the caller's task is checked once per source on its behalf
+        TaskControl control = TaskControl.current();
+        AtomicLong done = new AtomicLong();
+        try {
+            // One source per task: a full search is already plenty of work to amortize the fork
+            ParallelFor.run(pool, n, 1, (from, to) -> {
+                long[] row = new long[n];
+                for (int source = from; source < to; source++) {
+                    control.checkpoint(done.get(), n);
+                    graph.shortestDistances(source, row);
+                    matrix.writeRow(source, row);
+                    done.incrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            matrix.close();
+            throw e;
+        }
+        return matrix;
+    }
+}
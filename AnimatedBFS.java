@@ -1,2 +1,8 @@
-public class AnimatedBFS {
+// Plays back CsrGraph's breadth-first search from start: a vertex is settled when it is dequeued, by then
+// keeping the lowest-id parent on the previous level
+public class AnimatedBFS extends TraceAnimation {
+
+    public AnimatedBFS(CsrGraph graph, int start, double seconds) {
+        super(graph.bfsTrace(start), seconds);
+    }
 }
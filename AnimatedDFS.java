@@ -1,2 +1,8 @@
-public class AnimatedDFS {
+// Plays back CsrGraph's depth-first search from start: a vertex is pushed once per edge that reaches it before
+// it is visited, and the last push before its visit decides its parent
+public class AnimatedDFS extends TraceAnimation {
+
+    public AnimatedDFS(CsrGraph graph, int start, double seconds) {
+        super(graph.dfsTrace(start), seconds);
+    }
 }
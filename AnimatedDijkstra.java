@@ -1,2 +1,7 @@
-public class AnimatedDijkstra {
+// Plays back CsrGraph's Dijkstra search from start, so the settled tree matches dijkstraTree
+public class AnimatedDijkstra extends TraceAnimation {
+
+    public AnimatedDijkstra(CsrGraph graph, int start, double seconds) {
+        super(graph.dijkstraTrace(start), seconds);
+    }
 }
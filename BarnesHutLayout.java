@@ -0,0 +1,472 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Force-directed layout with Fruchterman-Reingold forces: edges pull their ends together and every pair of
+// vertices pushes apart. The all-pairs push is approximated with a Barnes-Hut quadtree, rebuilt each
+// iteration, in which a far enough square acts as one body at its centre of mass, so an iteration costs
+// O(V log V + E); forces are computed in parallel. A big graph untangles too slowly from a random start,
+// so it is first coarsened by merging matched neighbours, level after level; the coarsest graph is laid
+// out, and each finer level starts from the positions of its merged pairs and only needs refining.
+// Every vertex moves at most the current temperature, which cools each iteration, and a level is done
+// once the average move falls below the tolerance, as a fraction of the ideal edge length
+public class BarnesHutLayout {
+
+    public interface Frame {
+        // Positions by vertex id after the given iteration; only read during the call
+        void show(double[] x, double[] y, int iteration) throws InterruptedException;
+    }
+
+    // Edge length the forces balance at, the spacing the generators use
+    static final double IDEAL = 40;
+    // Weight of the push against the pull; below 1 it keeps the push from all the far vertices from
+    // stretching the edges of a big graph well past IDEAL
+    private static final double REPULSION = 0.2;
+    private static final double THETA = 1.0;
+    private static final double COOLING = 0.92;
+    // Deeper than this only points too close to tell apart are left, so they share a leaf
+    private static final int MAX_DEPTH = 40;
+    private static final int LEAF = 8;
+    // Coarsening stops at this many vertices, or once matching shrinks a level by less than MIN_SHRINK
+    private static final int COARSEST = 50;
+    private static final double MIN_SHRINK = 0.8;
+    private static final int COARSEST_ITERATIONS = 200;
+    private static final int LEVEL_ITERATIONS = 30;
+
+    // One graph of the hierarchy: undirected rows over indices 0..n-1, and each index's vertex one level up
+    private static class Level {
+        final int n;
+        final int[] offsets;
+        final int[] targets;
+        final double[] x;
+        final double[] y;
+        int[] up;
+
+        Level(int[] offsets, int[] targets) {
+            this.n = offsets.length - 1;
+            this.offsets = offsets;
+            this.targets = targets;
+            x = new double[n];
+            y = new double[n];
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final double[] x;
+    private final double[] y;
+    // Finest level index -> vertex id
+    private final int[] ids;
+    private final Level finest;
+    private double[] forceX = new double[0];
+    private double[] forceY = new double[0];
+
+    // Quadtree in arrays: children are four consecutive nodes from child[node], or -1 for a leaf holding the
+    // indices order[first[node] .. last[node])
+    private int[] order = new int[0];
+    private int nodes;
+    private double[] centerX = new double[64];
+    private double[] centerY = new double[64];
+    private double[] mass = new double[64];
+    private double[] size = new double[64];
+    private int[] child = new int[64];
+    private int[] first = new int[64];
+    private int[] last = new int[64];
+
+    // x and y hold the starting positions by vertex id and receive the result; vertices not live are left alone
+    public BarnesHutLayout(CsrGraph graph, boolean[] live, double[] x, double[] y, ForkJoinPool pool) {
+        this.pool = pool;
+        this.x = x;
+        this.y = y;
+        int numVertex = graph.getNumVertex();
+        int[] index = new int[numVertex];
+        int count = 0;
+        for (int v = 0; v < numVertex; v++) {
+            index[v] = v < live.length && live[v] ? count++ : -1;
+        }
+        ids = new int[count];
+        for (int v = 0; v < numVertex; v++) {
+            if (index[v] >= 0) ids[index[v]] = v;
+        }
+        finest = undirected(graph, index, count);
+        for (int i = 0; i < count; i++) {
+            finest.x[i] = x[ids[i]];
+            finest.y[i] = y[ids[i]];
+        }
+    }
+
+    // Lays out every level, coarsest first, showing frame each level's result and every iteration of the
+    // finest one, which gets up to maxIterations; returns the number of iterations run in all
+    public int run(int maxIterations, double tolerance, Frame frame) throws InterruptedException {
+        if (finest.n < 2) {
+            return 0;
+        }
+        Level[] levels = {finest};
+        while (levels[levels.length - 1].n > COARSEST) {
+            Level coarse = coarsen(levels[levels.length - 1]);
+            if (coarse == null) break;
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = coarse;
+        }
+
+        TaskControl control = TaskControl.current();
+        long planned = COARSEST_ITERATIONS + (long) LEVEL_ITERATIONS * (levels.length - 2) + maxIterations;
+        int iterations = 0;
+        for (int l = levels.length - 1; l >= 0; l--) {
+            Level level = levels[l];
+            if (l < levels.length - 1) {
+                prolong(levels[l + 1], level);
+            }
+            boolean coarsest = l == levels.length - 1;
+            int budget = l == 0 ? maxIterations : coarsest ? COARSEST_ITERATIONS : LEVEL_ITERATIONS;
+            // The coarsest layout starts hot enough to untangle; finer ones only refine what they inherit
+            double temperature = coarsest ? IDEAL * Math.sqrt(level.n) / 4 : IDEAL;
+            for (int i = 1; i <= budget; i++) {
+                control.checkpoint(Math.min(iterations, planned), planned);
+                double moved = iterate(level, temperature);
+                iterations++;
+                if (l == 0) {
+                    show(levels, 0, frame, iterations);
+                }
+                if (moved < tolerance * IDEAL) break;
+                temperature *= COOLING;
+            }
+            if (l > 0) {
+                show(levels, l, frame, iterations);
+            }
+        }
+        return iterations;
+    }
+
+    // One step: forces on every vertex, then every vertex moves along its force by at most the temperature;
+    // returns the average move
+    private double iterate(Level level, double temperature) {
+        if (forceX.length < level.n) {
+            forceX = new double[level.n];
+            forceY = new double[level.n];
+        }
+        buildTree(level);
+        ParallelFor.run(pool, level.n, 256, (from, to) -> {
+            int[] stack = new int[3 * MAX_DEPTH + 8];
+            for (int v = from; v < to; v++) {
+                computeForce(level, v, stack);
+            }
+        });
+        DoubleAdder moved = new DoubleAdder();
+        ParallelFor.run(pool, level.n, (from, to) -> {
+            double sum = 0;
+            for (int v = from; v < to; v++) {
+                double length = Math.hypot(forceX[v], forceY[v]);
+                if (length > 0) {
+                    double step = Math.min(length, temperature);
+                    level.x[v] += forceX[v] / length * step;
+                    level.y[v] += forceY[v] / length * step;
+                    sum += step;
+                }
+            }
+            moved.add(sum);
+        });
+        return moved.sum() / level.n;
+    }
+
+    private void computeForce(Level level, int v, int[] stack) {
+        double[] x = level.x;
+        double[] y = level.y;
+        double fx = 0;
+        double fy = 0;
+        double px = x[v];
+        double py = y[v];
+
+        // Repulsion REPULSION * IDEAL^2 / d from every other vertex, by whole squares where they look small enough
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double dx = px - centerX[node];
+            double dy = py - centerY[node];
+            double squared = dx * dx + dy * dy;
+            if (child[node] < 0) {
+                for (int i = first[node]; i < last[node]; i++) {
+                    int u = order[i];
+                    if (u == v) continue;
+                    dx = px - x[u];
+                    dy = py - y[u];
+                    squared = dx * dx + dy * dy;
+                    if (squared < 1e-4) {
+                        // Coincident points: push the pair apart along a diagonal picked by index
+                        dx = v < u ? -0.01 : 0.01;
+                        dy = dx;
+                        squared = 2e-4;
+                    }
+                    double push = REPULSION * IDEAL * IDEAL / squared;
+                    fx += dx * push;
+                    fy += dy * push;
+                }
+            } else if (size[node] * size[node] < THETA * THETA * squared) {
+                double push = REPULSION * mass[node] * IDEAL * IDEAL / squared;
+                fx += dx * push;
+                fy += dy * push;
+            } else {
+                for (int c = child[node]; c < child[node] + 4; c++) {
+                    if (mass[c] > 0) {
+                        stack[top++] = c;
+                    }
+                }
+            }
+        }
+
+        // Attraction d^2 / IDEAL towards every neighbour
+        for (int i = level.offsets[v]; i < level.offsets[v + 1]; i++) {
+            int u = level.targets[i];
+            double dx = px - x[u];
+            double dy = py - y[u];
+            double pull = Math.sqrt(dx * dx + dy * dy) / IDEAL;
+            fx -= dx * pull;
+            fy -= dy * pull;
+        }
+        forceX[v] = fx;
+        forceY[v] = fy;
+    }
+
+    private void buildTree(Level level) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int v = 0; v < level.n; v++) {
+            minX = Math.min(minX, level.x[v]);
+            minY = Math.min(minY, level.y[v]);
+            maxX = Math.max(maxX, level.x[v]);
+            maxY = Math.max(maxY, level.y[v]);
+        }
+        if (order.length < level.n) {
+            order = new int[level.n];
+        }
+        for (int v = 0; v < level.n; v++) {
+            order[v] = v;
+        }
+        nodes = 0;
+        int root = allocate();
+        build(level, root, 0, level.n, minX, minY, Math.max(1e-3, Math.max(maxX - minX, maxY - minY)), 0);
+    }
+
+    // Fills node with the indices in order[from, to), all inside the square at (left, top) of the given side
+    private void build(Level level, int node, int from, int to, double left, double top, double side, int depth) {
+        size[node] = side;
+        if (to - from <= LEAF || depth == MAX_DEPTH) {
+            child[node] = -1;
+            first[node] = from;
+            last[node] = to;
+            double sumX = 0;
+            double sumY = 0;
+            for (int i = from; i < to; i++) {
+                sumX += level.x[order[i]];
+                sumY += level.y[order[i]];
+            }
+            mass[node] = to - from;
+            centerX[node] = to > from ? sumX / (to - from) : 0;
+            centerY[node] = to > from ? sumY / (to - from) : 0;
+            return;
+        }
+
+        // Split into quadrants: left of midX, then above midY within each half
+        double half = side / 2;
+        double midX = left + half;
+        double midY = top + half;
+        int splitX = partition(level.x, from, to, midX);
+        int splitLeft = partition(level.y, from, splitX, midY);
+        int splitRight = partition(level.y, splitX, to, midY);
+        int children = allocate();
+        allocate();
+        allocate();
+        allocate();
+        child[node] = children;
+        build(level, children, from, splitLeft, left, top, half, depth + 1);
+        build(level, children + 1, splitLeft, splitX, left, midY, half, depth + 1);
+        build(level, children + 2, splitX, splitRight, midX, top, half, depth + 1);
+        build(level, children + 3, splitRight, to, midX, midY, half, depth + 1);
+
+        double total = 0;
+        double sumX = 0;
+        double sumY = 0;
+        for (int c = children; c < children + 4; c++) {
+            total += mass[c];
+            sumX += mass[c] * centerX[c];
+            sumY += mass[c] * centerY[c];
+        }
+        mass[node] = total;
+        centerX[node] = sumX / total;
+        centerY[node] = sumY / total;
+    }
+
+    // Reorders order[from, to) so those below the split on the axis come first; returns where the rest start
+    private int partition(double[] axis, int from, int to, double split) {
+        int i = from;
+        int j = to - 1;
+        while (i <= j) {
+            int v = order[i];
+            if (axis[v] < split) {
+                i++;
+            } else {
+                order[i] = order[j];
+                order[j--] = v;
+            }
+        }
+        return i;
+    }
+
+    private int allocate() {
+        if (nodes == mass.length) {
+            int capacity = nodes * 2;
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            size = Arrays.copyOf(size, capacity);
+            child = Arrays.copyOf(child, capacity);
+            first = Arrays.copyOf(first, capacity);
+            last = Arrays.copyOf(last, capacity);
+        }
+        return nodes++;
+    }
+
+    // Merges each vertex with an unmatched neighbour of lowest degree, visiting them in a fixed shuffled
+    // order; a merged vertex starts at the average of its pair. Null when that would hardly shrink the level
+    private static Level coarsen(Level fine) {
+        int n = fine.n;
+        int[] visit = new int[n];
+        for (int v = 0; v < n; v++) {
+            visit[v] = v;
+        }
+        SplittableRandom random = new SplittableRandom(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = visit[i];
+            visit[i] = visit[j];
+            visit[j] = swap;
+        }
+        int[] up = new int[n];
+        Arrays.fill(up, -1);
+        int coarseCount = 0;
+        for (int v : visit) {
+            if (up[v] >= 0) continue;
+            int match = -1;
+            for (int i = fine.offsets[v]; i < fine.offsets[v + 1]; i++) {
+                int u = fine.targets[i];
+                if (up[u] < 0 && (match < 0 || degree(fine, u) < degree(fine, match))) {
+                    match = u;
+                }
+            }
+            up[v] = coarseCount;
+            if (match >= 0) {
+                up[match] = coarseCount;
+            }
+            coarseCount++;
+        }
+        if (coarseCount > MIN_SHRINK * n) {
+            return null;
+        }
+
+        // Members of each merged vertex, then the union of their rows without the merged vertex itself
+        int[] memberStart = new int[coarseCount + 1];
+        for (int v = 0; v < n; v++) {
+            memberStart[up[v] + 1]++;
+        }
+        for (int c = 0; c < coarseCount; c++) {
+            memberStart[c + 1] += memberStart[c];
+        }
+        int[] members = new int[n];
+        int[] cursor = Arrays.copyOf(memberStart, coarseCount);
+        for (int v = 0; v < n; v++) {
+            members[cursor[up[v]]++] = v;
+        }
+        int[] seen = new int[coarseCount];
+        Arrays.fill(seen, -1);
+        int[] offsets = new int[coarseCount + 1];
+        int[] targets = new int[fine.targets.length];
+        int edges = 0;
+        for (int c = 0; c < coarseCount; c++) {
+            offsets[c] = edges;
+            for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+                int v = members[m];
+                for (int i = fine.offsets[v]; i < fine.offsets[v + 1]; i++) {
+                    int d = up[fine.targets[i]];
+                    if (d != c && seen[d] != c) {
+                        seen[d] = c;
+                        targets[edges++] = d;
+                    }
+                }
+            }
+        }
+        offsets[coarseCount] = edges;
+
+        Level coarse = new Level(offsets, Arrays.copyOf(targets, edges));
+        for (int c = 0; c < coarseCount; c++) {
+            int count = memberStart[c + 1] - memberStart[c];
+            for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+                coarse.x[c] += fine.x[members[m]] / count;
+                coarse.y[c] += fine.y[members[m]] / count;
+            }
+        }
+        fine.up = up;
+        return coarse;
+    }
+
+    private static int degree(Level level, int v) {
+        return level.offsets[v + 1] - level.offsets[v];
+    }
+
+    // Each fine vertex starts where its merged vertex ended, spread out by the square root of the growth in
+    // vertices, since the layout's area grows with their number; a merged pair is split a little apart
+    private static void prolong(Level coarse, Level fine) {
+        double centerX = 0;
+        double centerY = 0;
+        for (int c = 0; c < coarse.n; c++) {
+            centerX += coarse.x[c] / coarse.n;
+            centerY += coarse.y[c] / coarse.n;
+        }
+        double spread = Math.sqrt((double) fine.n / coarse.n);
+        for (int v = 0; v < fine.n; v++) {
+            int c = fine.up[v];
+            double jitter = (v & 1) == 0 ? IDEAL / 8 : -IDEAL / 8;
+            fine.x[v] = centerX + (coarse.x[c] - centerX) * spread + jitter;
+            fine.y[v] = centerY + (coarse.y[c] - centerY) * spread + jitter;
+        }
+    }
+
+    // Copies level l's positions to every vertex it stands for, by id, and shows them
+    private void show(Level[] levels, int l, Frame frame, int iteration) throws InterruptedException {
+        for (int i = 0; i < finest.n; i++) {
+            int at = i;
+            for (int k = 0; k < l; k++) {
+                at = levels[k].up[at];
+            }
+            x[ids[i]] = levels[l].x[at];
+            y[ids[i]] = levels[l].y[at];
+        }
+        frame.show(x, y, iteration);
+    }
+
+    // Rows of the live vertices, by index, with every edge in both directions and without repeats
+    private static Level undirected(CsrGraph graph, int[] index, int count) {
+        CsrGraph incoming = graph.transpose();
+        int[] offsets = new int[count + 1];
+        int[] targets = new int[graph.getNumEdge() + (incoming == graph ? 0 : incoming.getNumEdge())];
+        int[] seen = new int[count];
+        Arrays.fill(seen, -1);
+        int edges = 0;
+        for (int v = 0; v < index.length; v++) {
+            int i = index[v];
+            if (i < 0) continue;
+            offsets[i] = edges;
+            for (CsrGraph rows = graph; rows != null; rows = rows == incoming ? null : incoming) {
+                for (int e = rows.getOffsets()[v]; e < rows.getOffsets()[v + 1]; e++) {
+                    int j = index[rows.getTargets()[e]];
+                    if (j >= 0 && j != i && seen[j] != i) {
+                        seen[j] = i;
+                        targets[edges++] = j;
+                    }
+                }
+            }
+        }
+        offsets[count] = edges;
+        return new Level(offsets, Arrays.copyOf(targets, edges));
+    }
+}
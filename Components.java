@@ -0,0 +1,185 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Component labels of a CsrGraph, one int per vertex id. Labels run from 0 in order of each component's lowest
+// vertex id, and ids that are not live get -1. Connected components ignore edge direction and are found with a
+// lock-free union-find across a fork-join pool; strongly connected ones with Tarjan's algorithm on an explicit
+// stack, so a long path cannot overflow the thread's stack
+public class Components {
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    public static int[] connected(CsrGraph graph, boolean[] live) {
+        return connected(graph, live, ForkJoinPool.commonPool());
+    }
+
+    public static int[] connected(CsrGraph graph, boolean[] live, ForkJoinPool pool) {
+        int n = graph.getNumVertex();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        boolean directed = graph.isDirected;
+        TaskControl control = TaskControl.current();
+        AtomicLong done = new AtomicLong();
+
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        ParallelFor.run(pool, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                parent.set(v, v);
+            }
+        });
+        ParallelFor.run(pool, n, (from, to) -> {
+            control.checkpoint(done.get(), n);
+            for (int u = from; u < to; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    // An undirected edge is stored both ways, so one direction is enough
+                    if (v > u || directed && v != u) {
+                        union(parent, u, v);
+                    }
+                }
+            }
+            done.addAndGet(to - from);
+        });
+
+        int[] labels = new int[n];
+        ParallelFor.run(pool, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                labels[v] = find(parent, v);
+            }
+        });
+        // Every root is the lowest id of its set, so it is labelled before any other member
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (!isLive(live, v)) {
+                labels[v] = -1;
+            } else {
+                labels[v] = labels[v] == v ? count++ : labels[labels[v]];
+            }
+        }
+        return labels;
+    }
+
+    // Roots only ever gain a parent with a lower id, by CAS while they are still roots, so no cycle can form
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            int rootA = find(parent, a);
+            int rootB = find(parent, b);
+            if (rootA == rootB) return;
+            int low = Math.min(rootA, rootB);
+            int high = Math.max(rootA, rootB);
+            if (parent.compareAndSet(high, high, low)) return;
+        }
+    }
+
+    // Path halving; a lost race on the shortcut only means a longer path for the next find
+    private static int find(AtomicIntegerArray parent, int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) return v;
+            int grand = parent.get(p);
+            if (grand != p) {
+                parent.compareAndSet(v, p, grand);
+            }
+            v = grand;
+        }
+    }
+
+    public static int[] strong(CsrGraph graph, boolean[] live) {
+        int n = graph.getNumVertex();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        TaskControl control = TaskControl.current();
+
+        // order[v] is the 1-based discovery order, 0 while unvisited
+        int[] order = new int[n];
+        int[] low = new int[n];
+        int[] labels = new int[n];
+        Arrays.fill(labels, -1);
+        // Visited vertices not yet in a component, and the simulated call stack with each frame's next edge
+        int[] pending = new int[n];
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];
+        int visited = 0, top = 0, count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] != 0 || !isLive(live, root)) continue;
+            int depth = 0;
+            order[root] = low[root] = ++visited;
+            pending[top++] = root;
+            callVertex[depth] = root;
+            callEdge[depth++] = offsets[root];
+
+            while (depth > 0) {
+                int u = callVertex[depth - 1];
+                int i = callEdge[depth - 1];
+                if (i < offsets[u + 1]) {
+                    callEdge[depth - 1] = i + 1;
+                    int v = targets[i];
+                    if (order[v] == 0) {
+                        if ((visited & (CHECK_INTERVAL - 1)) == 0) {
+                            control.checkpoint(visited, n);
+                        }
+                        order[v] = low[v] = ++visited;
+                        pending[top++] = v;
+                        callVertex[depth] = v;
+                        callEdge[depth++] = offsets[v];
+                    } else if (labels[v] < 0) {
+                        // Still pending, so v is on the current path's component stack
+                        low[u] = Math.min(low[u], order[v]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (low[u] == order[u]) {
+                    int w;
+                    do {
+                        w = pending[--top];
+                        labels[w] = count;
+                    } while (w != u);
+                    count++;
+                }
+                if (depth > 0) {
+                    int caller = callVertex[depth - 1];
+                    low[caller] = Math.min(low[caller], low[u]);
+                }
+            }
+        }
+
+        // Components come out in reverse topological order; renumber them by lowest vertex id
+        int[] renumber = new int[count];
+        Arrays.fill(renumber, -1);
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            if (labels[v] < 0) continue;
+            if (renumber[labels[v]] < 0) {
+                renumber[labels[v]] = next++;
+            }
+            labels[v] = renumber[labels[v]];
+        }
+        return labels;
+    }
+
+    public static int count(int[] labels) {
+        int count = 0;
+        for (int label : labels) {
+            count = Math.max(count, label + 1);
+        }
+        return count;
+    }
+
+    public static int[] sizes(int[] labels) {
+        int[] sizes = new int[count(labels)];
+        for (int label : labels) {
+            if (label >= 0) {
+                sizes[label]++;
+            }
+        }
+        return sizes;
+    }
+
+    private static boolean isLive(boolean[] live, int v) {
+        return v < live.length && live[v];
+    }
+}
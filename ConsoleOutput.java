@@ -0,0 +1,245 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Console transcript in a JList, which only paints the rows in view. Lines live in a ring of at most MAX_LINES,
+// oldest dropped first. Text may be appended from any thread: it is queued and moved into the ring by a timer,
+// so a burst of output costs one list update per tick. Output longer than SPILL_LINES lines or SPILL_CHARS
+// characters, or with lines too long to show, is streamed in full to a temporary file as it is written and
+// shown cut short with the file's path
+public class ConsoleOutput extends JScrollPane {
+
+    private static final int MAX_LINES = 10000;
+    private static final int SPILL_LINES = 1000;
+    private static final int SPILL_CHARS = 1 << 20;
+    private static final int MAX_LINE_CHARS = 500;
+    private static final int FLUSH_MS = 100;
+
+    private final Lines lines = new Lines();
+    private final JList<String> list = new JList<>(lines);
+    private final ArrayDeque<String> pending = new ArrayDeque<>();
+    private final int charWidth;
+    private int widestLine;
+
+    public ConsoleOutput() {
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        FontMetrics metrics = list.getFontMetrics(list.getFont());
+        charWidth = metrics.charWidth('m');
+        // Fixed cell sizes keep the list from measuring every line it holds
+        list.setFixedCellHeight(metrics.getHeight());
+        list.setFixedCellWidth(charWidth);
+        setViewportView(list);
+        new Timer(FLUSH_MS, e -> flush()).start();
+    }
+
+    public void setOutputBackground(Color color) {
+        list.setBackground(color);
+    }
+
+    // Appends text as whole lines; one trailing newline ends the last line rather than adding an empty one
+    public void append(String text) {
+        try (Writer writer = writer()) {
+            writer.write(text);
+        }
+    }
+
+    // For output written a piece at a time, such as one line per vertex; nothing shows until it is closed
+    public Writer writer() {
+        return new Writer();
+    }
+
+    public class Writer implements Closeable {
+        private final List<String> shown = new ArrayList<>();
+        // The line being written, kept only as far as it is shown
+        private final StringBuilder partial = new StringBuilder();
+        // All the text so far, until it spills into the file
+        private final StringBuilder held = new StringBuilder();
+        private boolean inLine;
+        private long lines;
+        private Path file;
+        private BufferedWriter spill;
+        private IOException failed;
+
+        private Writer() {
+        }
+
+        public void write(String text) {
+            for (int from = 0; from < text.length(); ) {
+                int newline = text.indexOf('\n', from);
+                int lineEnd = newline < 0 ? text.length() : newline;
+                if (lines < SPILL_LINES && partial.length() <= MAX_LINE_CHARS) {
+                    partial.append(text, from, Math.min(lineEnd, from + MAX_LINE_CHARS + 1 - partial.length()));
+                }
+                int end = newline < 0 ? text.length() : newline + 1;
+                store(text, from, end);
+                inLine = newline < 0;
+                if (newline >= 0) {
+                    endLine();
+                }
+                from = end;
+            }
+        }
+
+        public void line(String text) {
+            write(text);
+            write("\n");
+        }
+
+        private void endLine() {
+            if (lines < SPILL_LINES) {
+                String line = partial.toString();
+                if (line.length() > MAX_LINE_CHARS) {
+                    line = line.substring(0, MAX_LINE_CHARS) + "...";
+                    startSpill();
+                }
+                shown.add(line);
+            }
+            partial.setLength(0);
+            if (++lines > SPILL_LINES) {
+                startSpill();
+            }
+        }
+
+        private void store(String text, int from, int to) {
+            if (failed != null) return;
+            try {
+                if (spill != null) {
+                    spill.write(text, from, to - from);
+                } else {
+                    held.append(text, from, to);
+                    if (held.length() > SPILL_CHARS) {
+                        startSpill();
+                    }
+                }
+            } catch (IOException e) {
+                failed = e;
+            }
+        }
+
+        // From here on the text goes to the file, and only the lines already taken are shown
+        private void startSpill() {
+            if (spill != null || failed != null) return;
+            try {
+                file = Files.createTempFile("graph-output-", ".txt");
+                spill = Files.newBufferedWriter(file);
+                spill.append(held);
+            } catch (IOException e) {
+                failed = e;
+            }
+            held.setLength(0);
+            held.trimToSize();
+        }
+
+        // One trailing line that was never ended still counts; the lines then go to the console
+        @Override
+        public void close() {
+            if (inLine) {
+                inLine = false;
+                endLine();
+            }
+            if (spill != null) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    if (failed == null) failed = e;
+                }
+            }
+            if (failed != null) {
+                shown.add("... " + lines + " lines, cut short (could not write them out: " + failed.getMessage() + ")");
+            } else if (spill != null) {
+                shown.add("... full output (" + lines + " lines) written to " + file);
+            }
+            queue(shown);
+        }
+    }
+
+    private void queue(List<String> shown) {
+        synchronized (pending) {
+            pending.addAll(shown);
+            // Anything past the ring's size would be dropped on the next flush anyway
+            while (pending.size() > MAX_LINES) {
+                pending.removeFirst();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (pending) {
+            pending.clear();
+        }
+        lines.clear();
+        widestLine = 0;
+        list.setFixedCellWidth(charWidth);
+    }
+
+    private void flush() {
+        List<String> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        // Follow the end of the output unless the view has been scrolled up
+        JScrollBar bar = getVerticalScrollBar();
+        boolean atEnd = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - list.getFixedCellHeight();
+        for (String line : batch) {
+            widestLine = Math.max(widestLine, line.length());
+        }
+        list.setFixedCellWidth(charWidth * (widestLine + 1));
+        lines.add(batch);
+        if (atEnd) {
+            validate();
+            list.ensureIndexIsVisible(lines.getSize() - 1);
+        }
+    }
+
+    private static class Lines extends AbstractListModel<String> {
+        private final String[] ring = new String[MAX_LINES];
+        private int head;
+        private int size;
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return ring[(head + index) % MAX_LINES];
+        }
+
+        void add(List<String> batch) {
+            int count = Math.min(batch.size(), MAX_LINES);
+            int dropped = Math.max(0, size + count - MAX_LINES);
+            if (dropped > 0) {
+                head = (head + dropped) % MAX_LINES;
+                size -= dropped;
+                fireIntervalRemoved(this, 0, dropped - 1);
+            }
+            for (int i = batch.size() - count; i < batch.size(); i++) {
+                ring[(head + size++) % MAX_LINES] = batch.get(i);
+            }
+            if (count > 0) {
+                fireIntervalAdded(this, size - count, size - 1);
+            }
+        }
+
+        void clear() {
+            int removed = size;
+            head = 0;
+            size = 0;
+            Arrays.fill(ring, null);
+            if (removed > 0) {
+                fireIntervalRemoved(this, 0, removed - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,467 @@
+import java.util.*;
+
+public class CsrGraph {
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    protected final boolean isDirected;
+    protected final boolean isWeighted;
+    private final int numVertex;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private volatile CsrGraph transpose;
+
+    public CsrGraph(boolean isDirected, boolean isWeighted, int[] offsets, int[] targets, int[] weights) {
+        this.isDirected = isDirected;
+        this.isWeighted = isWeighted;
+        this.numVertex = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Bulk builder for generated or imported edge lists: loops are dropped and repeated pairs keep the lightest weight
+    public static CsrGraph fromEdges(boolean isDirected, boolean isWeighted, int numVertex,
+                                     int[] from, int[] to, int[] weights, int numEdges) {
+        int[] offsets = new int[numVertex + 1];
+        for (int e = 0; e < numEdges; e++) {
+            if (from[e] == to[e]) continue;
+            offsets[from[e] + 1]++;
+            if (!isDirected) {
+                offsets[to[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < numVertex; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Same (target, weight) packing as of(), so sorting a row also groups its duplicates
+        long[] packed = new long[offsets[numVertex]];
+        int[] cursor = Arrays.copyOf(offsets, numVertex);
+        for (int e = 0; e < numEdges; e++) {
+            if (from[e] == to[e]) continue;
+            long weight = (weights == null ? 0 : weights[e]) & 0xFFFFFFFFL;
+            packed[cursor[from[e]]++] = ((long) to[e] << 32) | weight;
+            if (!isDirected) {
+                packed[cursor[to[e]]++] = ((long) from[e] << 32) | weight;
+            }
+        }
+
+        int[] targets = new int[packed.length];
+        int[] packedWeights = new int[packed.length];
+        int size = 0;
+        int rowStart = 0;
+        for (int v = 0; v < numVertex; v++) {
+            int rowEnd = offsets[v + 1];
+            Arrays.sort(packed, rowStart, rowEnd);
+            offsets[v] = size;
+            for (int i = rowStart; i < rowEnd; i++) {
+                int target = (int) (packed[i] >>> 32);
+                if (size > offsets[v] && targets[size - 1] == target) continue;
+                targets[size] = target;
+                packedWeights[size] = (int) packed[i];
+                size++;
+            }
+            rowStart = rowEnd;
+        }
+        offsets[numVertex] = size;
+        return new CsrGraph(isDirected, isWeighted, offsets,
+                Arrays.copyOf(targets, size), Arrays.copyOf(packedWeights, size));
+    }
+
+    public static CsrGraph of(Graph graph) {
+        // Tombstoned ids keep an empty row so vertex ids stay valid indices
+        int n = graph.getIdBound();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            Vertex vertex = graph.getVertex(i);
+            offsets[i + 1] = offsets[i] + (vertex == null ? 0 : vertex.getEdges().size());
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        long[] row = new long[0];
+        for (int i = 0; i < n; i++) {
+            Vertex vertex = graph.getVertex(i);
+            if (vertex == null) continue;
+            List<Edge> edges = vertex.getEdges();
+            int degree = edges.size();
+            if (row.length < degree) {
+                row = new long[degree];
+            }
+            // Pack (target, weight) so one primitive sort orders the row by target id
+            for (int j = 0; j < degree; j++) {
+                Edge edge = edges.get(j);
+                int weight = edge.getWeight() == null ? 0 : edge.getWeight();
+                row[j] = ((long) edge.getTo().getId() << 32) | (weight & 0xFFFFFFFFL);
+            }
+            Arrays.sort(row, 0, degree);
+            for (int j = 0; j < degree; j++) {
+                targets[offsets[i] + j] = (int) (row[j] >>> 32);
+                weights[offsets[i] + j] = (int) row[j];
+            }
+        }
+        return new CsrGraph(graph.isDirected, graph.isWeighted, offsets, targets, weights);
+    }
+
+    public int getNumVertex() {
+        return numVertex;
+    }
+
+    public int getNumEdge() {
+        return targets.length;
+    }
+
+    public int getDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+
+    // Incoming rows, also sorted by id; an undirected graph is its own transpose
+    public CsrGraph transpose() {
+        if (!isDirected) {
+            return this;
+        }
+        CsrGraph result = transpose;
+        if (result == null) {
+            int[] reverseOffsets = new int[numVertex + 1];
+            for (int target : targets) {
+                reverseOffsets[target + 1]++;
+            }
+            for (int v = 0; v < numVertex; v++) {
+                reverseOffsets[v + 1] += reverseOffsets[v];
+            }
+            int[] cursor = Arrays.copyOf(reverseOffsets, numVertex);
+            int[] reverseTargets = new int[targets.length];
+            int[] reverseWeights = new int[targets.length];
+            // Sources are visited in increasing order, so every reversed row comes out sorted
+            for (int u = 0; u < numVertex; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int slot = cursor[targets[i]]++;
+                    reverseTargets[slot] = u;
+                    reverseWeights[slot] = weights[i];
+                }
+            }
+            result = new CsrGraph(true, isWeighted, reverseOffsets, reverseTargets, reverseWeights);
+            transpose = result;
+        }
+        return result;
+    }
+
+    public int getWeight(int from, int to) {
+        int index = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return index < 0 ? -1 : weights[index];
+    }
+
+    public List<Integer> bfs(int start, int end) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        return bfs(workspace, start, end) ? buildPath(workspace.parent, end) : null;
+    }
+
+    public List<Integer> dfs(int start, int end) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        return dfs(workspace, start, end) ? buildPath(workspace.parent, end) : null;
+    }
+
+    public List<Integer> dijkstra(int start, int end) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        return dijkstra(workspace, start, end) ? buildPath(workspace.parent, end) : null;
+    }
+
+    public ShortestPathTree bfsTree(int start) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        bfs(workspace, start, -1);
+        return workspace.toTree(start, numVertex);
+    }
+
+    public ShortestPathTree dfsTree(int start) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        dfs(workspace, start, -1);
+        return workspace.toTree(start, numVertex);
+    }
+
+    public ShortestPathTree dijkstraTree(int start) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        dijkstra(workspace, start, -1);
+        return workspace.toTree(start, numVertex);
+    }
+
+    // The same full searches, logging every step for the animations to play back
+    public AlgorithmTrace bfsTrace(int start) {
+        AlgorithmTrace trace = new AlgorithmTrace(start, numVertex);
+        bfs(TraversalWorkspace.get(), start, -1, trace);
+        return trace;
+    }
+
+    public AlgorithmTrace dfsTrace(int start) {
+        AlgorithmTrace trace = new AlgorithmTrace(start, numVertex);
+        dfs(TraversalWorkspace.get(), start, -1, trace);
+        return trace;
+    }
+
+    public AlgorithmTrace dijkstraTrace(int start) {
+        AlgorithmTrace trace = new AlgorithmTrace(start, numVertex);
+        dijkstra(TraversalWorkspace.get(), start, -1, trace);
+        return trace;
+    }
+
+    // Fills out[v] with the distance from start without building a tree: weighted graphs use dijkstra,
+    // unweighted ones count hops with bfs. Unreachable vertices get ShortestPathTree.UNREACHABLE.
+    public void shortestDistances(int start, long[] out) {
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        if (isWeighted) {
+            dijkstra(workspace, start, -1);
+        } else {
+            bfs(workspace, start, -1);
+        }
+        for (int v = 0; v < numVertex; v++) {
+            if (!workspace.isMarked(v)) {
+                out[v] = ShortestPathTree.UNREACHABLE;
+            } else {
+                out[v] = isWeighted ? workspace.dist[v] : workspace.hops[v];
+            }
+        }
+    }
+
+    // The searches below stop once end is reached (pass -1 to search everything) and report whether it was.
+    // They allocate nothing: all state lives in the workspace and is reset by starting a new epoch.
+    // Every CHECK_INTERVAL vertices they report progress to the current task, which may cancel them.
+    // Their counters are plain locals, handed to AlgorithmStats once at the end when it is enabled.
+    // A trace, when given, gets every vertex reached, every better parent found and every vertex settled.
+
+    private boolean bfs(TraversalWorkspace workspace, int start, int end) {
+        return bfs(workspace, start, end, null);
+    }
+
+    private boolean dfs(TraversalWorkspace workspace, int start, int end) {
+        return dfs(workspace, start, end, null);
+    }
+
+    private boolean dijkstra(TraversalWorkspace workspace, int start, int end) {
+        return dijkstra(workspace, start, end, null);
+    }
+
+    private boolean bfs(TraversalWorkspace workspace, int start, int end, AlgorithmTrace trace) {
+        AlgorithmStats.Probe probe = AlgorithmStats.ENABLED ? AlgorithmStats.start() : null;
+        workspace.prepare(numVertex, 0);
+        int[] mark = workspace.mark;
+        int epoch = workspace.epoch;
+        int[] parent = workspace.parent;
+        long[] dist = workspace.dist;
+        int[] hops = workspace.hops;
+        int[] queue = workspace.queue;
+        TaskControl control = TaskControl.current();
+
+        int head = 0, tail = 0;
+        long scanned = 0;
+        boolean found = false;
+        queue[tail++] = start;
+        mark[start] = epoch;
+        parent[start] = -1;
+        dist[start] = 0;
+        hops[start] = 0;
+        if (trace != null) {
+            trace.add(AlgorithmTrace.VISIT, -1, start);
+        }
+
+        while (head < tail) {
+            int u = queue[head++];
+            if ((head & (CHECK_INTERVAL - 1)) == 0) {
+                control.checkpoint(head, numVertex);
+            }
+            if (trace != null) {
+                trace.add(AlgorithmTrace.SETTLE, parent[u], u);
+            }
+
+            if (u == end) {
+                found = true;
+                break;
+            }
+
+            scanned += offsets[u + 1] - offsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (mark[v] != epoch) {
+                    queue[tail++] = v;
+                    mark[v] = epoch;
+                    parent[v] = u;
+                    dist[v] = dist[u] + weights[i];
+                    hops[v] = hops[u] + 1;
+                    if (trace != null) {
+                        trace.add(AlgorithmTrace.VISIT, u, v);
+                    }
+                } else if (u < parent[v] && hops[v] == hops[u] + 1) {
+                    // Prefer the lowest-id parent on the previous level, so every BFS variant builds the same tree
+                    parent[v] = u;
+                    dist[v] = dist[u] + weights[i];
+                    if (trace != null) {
+                        trace.add(AlgorithmTrace.RELAX, u, v);
+                    }
+                }
+            }
+        }
+        if (probe != null) {
+            probe.finish("bfs", start, head, scanned, tail, head, 0, 0);
+        }
+        return found;
+    }
+
+    private boolean dfs(TraversalWorkspace workspace, int start, int end, AlgorithmTrace trace) {
+        AlgorithmStats.Probe probe = AlgorithmStats.ENABLED ? AlgorithmStats.start() : null;
+        // A vertex can be pushed once per incoming edge before it is visited
+        workspace.prepare(numVertex, targets.length + 1);
+        int[] mark = workspace.mark;
+        int epoch = workspace.epoch;
+        int[] parent = workspace.parent;
+        long[] dist = workspace.dist;
+        int[] hops = workspace.hops;
+        int[] stack = workspace.stack;
+        TaskControl control = TaskControl.current();
+        // Only a trace tells a vertex's first push from the later ones, so only a trace pays for this
+        boolean[] reached = trace != null ? new boolean[numVertex] : null;
+        int visited = 0;
+        long scanned = 0, pushes = 1, pops = 0;
+        boolean found = false;
+
+        int top = 0;
+        stack[top++] = start;
+        parent[start] = -1;
+        dist[start] = 0;
+        hops[start] = 0;
+        if (trace != null) {
+            reached[start] = true;
+            trace.add(AlgorithmTrace.VISIT, -1, start);
+        }
+
+        while (top > 0) {
+            int u = stack[--top];
+            pops++;
+
+            if (mark[u] == epoch) continue;
+            mark[u] = epoch;
+            if ((++visited & (CHECK_INTERVAL - 1)) == 0) {
+                control.checkpoint(visited, numVertex);
+            }
+            if (trace != null) {
+                trace.add(AlgorithmTrace.SETTLE, parent[u], u);
+            }
+
+            if (u == end) {
+                found = true;
+                break;
+            }
+
+            // Rows are sorted by target id, so the lowest id ends up deepest in the stack
+            scanned += offsets[u + 1] - offsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (mark[v] != epoch) {
+                    stack[top++] = v;
+                    pushes++;
+                    // The last push wins, so parent, dist and hops are overwritten together
+                    parent[v] = u;
+                    dist[v] = dist[u] + weights[i];
+                    hops[v] = hops[u] + 1;
+                    if (trace != null) {
+                        trace.add(reached[v] ? AlgorithmTrace.RELAX : AlgorithmTrace.VISIT, u, v);
+                        reached[v] = true;
+                    }
+                }
+            }
+        }
+        if (probe != null) {
+            // Pops of vertices already visited through another edge are the stale entries
+            probe.finish("dfs", start, visited, scanned, pushes, pops, 0, pops - visited);
+        }
+        return found;
+    }
+
+    private boolean dijkstra(TraversalWorkspace workspace, int start, int end, AlgorithmTrace trace) {
+        AlgorithmStats.Probe probe = AlgorithmStats.ENABLED ? AlgorithmStats.start() : null;
+        workspace.prepare(numVertex, 0);
+        int[] mark = workspace.mark;
+        int epoch = workspace.epoch;
+        int[] parent = workspace.parent;
+        long[] dist = workspace.dist;
+        int[] hops = workspace.hops;
+        IndexedDaryHeap heap = workspace.heap;
+        TaskControl control = TaskControl.current();
+        int settled = 0;
+        long scanned = 0, pushes = 1, decreases = 0;
+        boolean found = false;
+
+        heap.insert(start, 0);
+        mark[start] = epoch;
+        parent[start] = -1;
+        dist[start] = 0;
+        hops[start] = 0;
+        if (trace != null) {
+            trace.add(AlgorithmTrace.VISIT, -1, start);
+        }
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if ((++settled & (CHECK_INTERVAL - 1)) == 0) {
+                control.checkpoint(settled, numVertex);
+            }
+            if (trace != null) {
+                trace.add(AlgorithmTrace.SETTLE, parent[u], u);
+            }
+            if (u == end) {
+                found = true;
+                break;
+            }
+
+            scanned += offsets[u + 1] - offsets[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                long candidate = dist[u] + weights[i];
+                boolean first = mark[v] != epoch;
+                if (first) {
+                    mark[v] = epoch;
+                    heap.insert(v, candidate);
+                    pushes++;
+                } else if (candidate < dist[v]) {
+                    // Weights are non-negative, so a settled vertex can never get here
+                    heap.decreaseKey(v, candidate);
+                    decreases++;
+                } else if (candidate != dist[v] || u > parent[v] || !heap.contains(v)) {
+                    // Ties go to the lowest-id parent, which makes the tree independent of the settle order
+                    continue;
+                }
+                if (trace != null) {
+                    trace.add(first ? AlgorithmTrace.VISIT : AlgorithmTrace.RELAX, u, v);
+                }
+                dist[v] = candidate;
+                parent[v] = u;
+                hops[v] = hops[u] + 1;
+            }
+        }
+        if (probe != null) {
+            // The heap is indexed, so a better distance moves the entry instead of leaving a stale one behind
+            probe.finish("dijkstra", start, settled, scanned, pushes, settled, decreases, 0);
+        }
+        return found;
+    }
+
+    static List<Integer> buildPath(int[] parent, int end) {
+        List<Integer> path = new ArrayList<>();
+        for (int at = end; at != -1; at = parent[at]) {
+            path.add(at);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Meyer-Sanders delta-stepping: vertices are bucketed by dist / delta, and each bucket relaxes its light
+// edges (weight <= delta) until it stays empty, then the heavy edges of everything it settled, in parallel
+public class DeltaStepping {
+
+    private static class IntBuffer {
+
+        int[] items = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = v;
+        }
+    }
+
+    // Roughly the largest weight over the average degree, the usual starting point
+    public static long defaultDelta(CsrGraph graph) {
+        long maxWeight = maxWeight(graph);
+        return Math.max(1, maxWeight * graph.getNumVertex() / Math.max(1, graph.getNumEdge()));
+    }
+
+    public static ShortestPathTree run(CsrGraph graph, int start) {
+        return run(graph, start, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    public static ShortestPathTree run(CsrGraph graph, int start, long delta, ForkJoinPool pool) {
+        if (!graph.isWeighted) {
+            throw new IllegalArgumentException("Delta-stepping needs a weighted graph");
+        }
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta must be positive");
+        }
+        // buildTree walks parent chains that only end because every weight is positive
+        for (int weight : graph.getWeights()) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Delta-stepping needs positive weights, found " + weight);
+            }
+        }
+        int n = graph.getNumVertex();
+        AtomicLongArray dist = new AtomicLongArray(n);
+        ParallelFor.run(pool, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                dist.set(v, ShortestPathTree.UNREACHABLE);
+            }
+        });
+
+        // Pending distances never exceed the current bucket by more than the largest weight,
+        // so a ring of buckets covering that span is enough
+        int ringSize = (int) (maxWeight(graph) / delta) + 2;
+        IntBuffer[] buckets = new IntBuffer[ringSize];
+        for (int b = 0; b < ringSize; b++) {
+            buckets[b] = new IntBuffer();
+        }
+        int[] takenMark = new int[n];
+        int[] settledMark = new int[n];
+        int round = 0;
+        int phase = 0;
+        IntBuffer settled = new IntBuffer();
+
+        dist.set(start, 0);
+        buckets[0].add(start);
+        long pending = 1;
+        long finished = 0;
+        TaskControl control = TaskControl.current();
+
+        for (long current = 0; pending > 0; current++) {
+            IntBuffer bucket = buckets[(int) (current % ringSize)];
+            if (bucket.size == 0) continue;
+            control.checkpoint(finished, n);
+            settled.size = 0;
+            int settledStamp = ++phase;
+
+            while (bucket.size > 0) {
+                round++;
+                int[] requests = new int[bucket.size];
+                int count = 0;
+                for (int k = 0; k < bucket.size; k++) {
+                    int v = bucket.items[k];
+                    pending--;
+                    // Skip entries left behind by a later improvement and repeats within the round
+                    if (dist.get(v) / delta != current || takenMark[v] == round) continue;
+                    takenMark[v] = round;
+                    requests[count++] = v;
+                    if (settledMark[v] != settledStamp) {
+                        settledMark[v] = settledStamp;
+                        settled.add(v);
+                    }
+                }
+                bucket.size = 0;
+                pending += relax(graph, pool, dist, requests, count, delta, true, buckets);
+            }
+            pending += relax(graph, pool, dist, settled.items, settled.size, delta, false, buckets);
+            finished += settled.size;
+        }
+
+        return buildTree(graph, pool, dist, start);
+    }
+
+    // Relaxes the light or heavy edges of the given vertices and files every improved vertex into its bucket
+    private static int relax(CsrGraph graph, ForkJoinPool pool, AtomicLongArray dist, int[] vertices, int count,
+                             long delta, boolean light, IntBuffer[] buckets) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        ConcurrentLinkedQueue<IntBuffer> improved = new ConcurrentLinkedQueue<>();
+
+        ParallelFor.run(pool, count, (from, to) -> {
+            IntBuffer local = new IntBuffer();
+            for (int k = from; k < to; k++) {
+                int u = vertices[k];
+                long du = dist.get(u);
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    if ((weights[i] <= delta) != light) continue;
+                    int v = targets[i];
+                    long candidate = du + weights[i];
+                    long old = dist.get(v);
+                    while (candidate < old) {
+                        if (dist.compareAndSet(v, old, candidate)) {
+                            local.add(v);
+                            break;
+                        }
+                        old = dist.get(v);
+                    }
+                }
+            }
+            if (local.size > 0) {
+                improved.add(local);
+            }
+        });
+
+        int added = 0;
+        for (IntBuffer local : improved) {
+            for (int k = 0; k < local.size; k++) {
+                int v = local.items[k];
+                buckets[(int) ((dist.get(v) / delta) % buckets.length)].add(v);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static ShortestPathTree buildTree(CsrGraph graph, ForkJoinPool pool, AtomicLongArray dist, int start) {
+        int n = graph.getNumVertex();
+        CsrGraph reverse = graph.transpose();
+        int[] reverseOffsets = reverse.getOffsets();
+        int[] reverseTargets = reverse.getTargets();
+        int[] reverseWeights = reverse.getWeights();
+        long[] treeDist = new long[n];
+        int[] parent = new int[n];
+
+        // The lowest-id tight predecessor is the parent, the same tie-break dijkstra uses
+        ParallelFor.run(pool, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                long dv = dist.get(v);
+                treeDist[v] = dv;
+                parent[v] = -1;
+                if (v == start || dv == ShortestPathTree.UNREACHABLE) continue;
+                for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; i++) {
+                    long du = dist.get(reverseTargets[i]);
+                    if (du != ShortestPathTree.UNREACHABLE && du + reverseWeights[i] == dv) {
+                        parent[v] = reverseTargets[i];
+                        break;
+                    }
+                }
+            }
+        });
+
+        // Weights are positive, so parent chains strictly decrease in distance and always end at start
+        int[] hops = new int[n];
+        Arrays.fill(hops, -1);
+        hops[start] = 0;
+        int[] stack = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (hops[v] >= 0 || treeDist[v] == ShortestPathTree.UNREACHABLE) continue;
+            int top = 0;
+            int at = v;
+            while (hops[at] < 0) {
+                stack[top++] = at;
+                at = parent[at];
+            }
+            int h = hops[at];
+            while (top > 0) {
+                hops[stack[--top]] = ++h;
+            }
+        }
+        return new ShortestPathTree(start, parent, treeDist, hops);
+    }
+
+    private static long maxWeight(CsrGraph graph) {
+        long maxWeight = 1;
+        for (int weight : graph.getWeights()) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        return maxWeight;
+    }
+}
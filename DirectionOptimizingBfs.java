@@ -0,0 +1,114 @@
+import java.util.Arrays;
+
+// Beamer-style BFS that switches between top-down and bottom-up steps over long[] bitset frontiers
+public class DirectionOptimizingBfs {
+
+    // Switch to bottom-up once the frontier's edges exceed 1/ALPHA of the unexplored edges,
+    // and back to top-down once the frontier shrinks below 1/BETA of the vertices
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    public static ShortestPathTree run(CsrGraph graph, int start) {
+        int n = graph.getNumVertex();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        CsrGraph reverse = graph.transpose();
+        int[] reverseOffsets = reverse.getOffsets();
+        int[] reverseTargets = reverse.getTargets();
+        int[] reverseWeights = reverse.getWeights();
+
+        int words = (n + 63) >>> 6;
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        long[] visited = new long[words];
+        int[] parent = new int[n];
+        long[] dist = new long[n];
+        int[] hops = new int[n];
+        Arrays.fill(parent, -1);
+        Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(hops, -1);
+
+        frontier[start >>> 6] |= 1L << start;
+        visited[start >>> 6] |= 1L << start;
+        dist[start] = 0;
+        hops[start] = 0;
+
+        long frontierSize = 1;
+        long frontierEdges = graph.getDegree(start);
+        long unexploredEdges = graph.getNumEdge() - frontierEdges;
+        boolean bottomUp = false;
+        int level = 0;
+        long reached = 1;
+        TaskControl control = TaskControl.current();
+
+        while (frontierSize > 0) {
+            control.checkpoint(reached, n);
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+
+            Arrays.fill(next, 0);
+            long nextSize = 0;
+            long nextEdges = 0;
+
+            if (bottomUp) {
+                // Every unvisited vertex looks for a parent; incoming rows are sorted, so the first hit is the lowest id
+                for (int w = 0; w < words; w++) {
+                    long unvisited = ~visited[w];
+                    while (unvisited != 0) {
+                        int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                        unvisited &= unvisited - 1;
+                        if (v >= n) break;
+                        for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; i++) {
+                            int u = reverseTargets[i];
+                            if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                                parent[v] = u;
+                                dist[v] = dist[u] + reverseWeights[i];
+                                hops[v] = level + 1;
+                                next[w] |= 1L << v;
+                                visited[w] |= 1L << v;
+                                nextSize++;
+                                nextEdges += offsets[v + 1] - offsets[v];
+                                break;
+                            }
+                        }
+                    }
+                }
+            } else {
+                // Frontier vertices are expanded in increasing id order, so the first discoverer is the lowest id
+                for (int w = 0; w < words; w++) {
+                    long bits = frontier[w];
+                    while (bits != 0) {
+                        int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                            int v = targets[i];
+                            if ((visited[v >>> 6] & (1L << v)) == 0) {
+                                parent[v] = u;
+                                dist[v] = dist[u] + weights[i];
+                                hops[v] = level + 1;
+                                next[v >>> 6] |= 1L << v;
+                                visited[v >>> 6] |= 1L << v;
+                                nextSize++;
+                                nextEdges += offsets[v + 1] - offsets[v];
+                            }
+                        }
+                    }
+                }
+            }
+
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize;
+            reached += nextSize;
+            frontierEdges = nextEdges;
+            unexploredEdges -= nextEdges;
+            level++;
+        }
+        return new ShortestPathTree(start, parent, dist, hops);
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// V x V matrix of longs kept in a memory-mapped file, so all-pairs results don't have to fit on the heap
+public class DistanceMatrix implements Closeable {
+
+    private static final int MAGIC = 0x4743444D; // "GCDM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // Each mapping covers whole rows and stays well below the 2 GB limit of a single MappedByteBuffer
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final int numVertex;
+    private final int rowsPerSegment;
+    private final boolean writable;
+    private MappedByteBuffer[] mappings;
+    private LongBuffer[] segments;
+
+    private DistanceMatrix(FileChannel channel, int numVertex, FileChannel.MapMode mode) throws IOException {
+        this.numVertex = numVertex;
+        this.writable = mode == FileChannel.MapMode.READ_WRITE;
+        long rowBytes = (long) numVertex * Long.BYTES;
+        this.rowsPerSegment = (int) Math.max(1, Math.min(numVertex, SEGMENT_BYTES / Math.max(1, rowBytes)));
+        int count = numVertex == 0 ? 0 : (numVertex + rowsPerSegment - 1) / rowsPerSegment;
+        this.mappings = new MappedByteBuffer[count];
+        this.segments = new LongBuffer[count];
+        for (int s = 0; s < count; s++) {
+            int rows = Math.min(rowsPerSegment, numVertex - s * rowsPerSegment);
+            mappings[s] = channel.map(mode, HEADER_BYTES + s * rowsPerSegment * rowBytes, rows * rowBytes);
+            segments[s] = mappings[s].asLongBuffer();
+        }
+    }
+
+    public static DistanceMatrix create(Path path, int numVertex) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numVertex).putInt(0).flip();
+            channel.write(header, 0);
+            // The mapping outlives the channel, so closing it here is fine
+            return new DistanceMatrix(channel, numVertex, FileChannel.MapMode.READ_WRITE);
+        }
+    }
+
+    public static DistanceMatrix open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a distance matrix file: " + path);
+            }
+            int numVertex = header.getInt();
+            if (channel.size() < HEADER_BYTES + (long) numVertex * numVertex * Long.BYTES) {
+                throw new IOException("Truncated distance matrix file: " + path);
+            }
+            return new DistanceMatrix(channel, numVertex, FileChannel.MapMode.READ_ONLY);
+        }
+    }
+
+    public int getNumVertex() {
+        return numVertex;
+    }
+
+    // ShortestPathTree.UNREACHABLE when there is no path
+    public long dist(int u, int v) {
+        return segments[u / rowsPerSegment].get((u % rowsPerSegment) * numVertex + v);
+    }
+
+    // Rows are disjoint, so several threads may write different rows at once
+    public void writeRow(int u, long[] row) {
+        LongBuffer segment = segments[u / rowsPerSegment].duplicate();
+        segment.put((u % rowsPerSegment) * numVertex, row, 0, numVertex);
+    }
+
+    public void readRow(int u, long[] row) {
+        LongBuffer segment = segments[u / rowsPerSegment].duplicate();
+        segment.get((u % rowsPerSegment) * numVertex, row, 0, numVertex);
+    }
+
+    @Override
+    public void close() {
+        if (writable) {
+            for (MappedByteBuffer mapping : mappings) {
+                mapping.force();
+            }
+        }
+        // Mapped regions are released by the garbage collector once unreachable
+        mappings = new MappedByteBuffer[0];
+        segments = new LongBuffer[0];
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Shortest-path tree from one source kept current as the graph changes (Ramalingam-Reps style):
+// a cheaper edge propagates outward from its head, a dearer or removed tree edge re-solves only the
+// subtree hanging below it, and every other edit costs O(1)
+public class DynamicSssp implements GraphListener {
+
+    private final Graph graph;
+    private int source;
+    private long[] dist;
+    private int[] parent;
+    private int[] mark;
+    private int epoch;
+    private int[] changed;
+    private int changedSize;
+    private IndexedDaryHeap heap;
+    private long repaired;
+
+    public DynamicSssp(Graph graph, int source) {
+        if (!graph.isWeighted) {
+            throw new IllegalArgumentException("Dynamic shortest paths need a weighted graph");
+        }
+        if (graph.getVertex(source) == null) {
+            throw new IllegalArgumentException("Unknown source vertex: " + source);
+        }
+        this.graph = graph;
+        this.source = source;
+        int n = graph.getIdBound();
+        ShortestPathTree tree = graph.dijkstraTree(source);
+        allocate(Math.max(16, n));
+        for (int v = 0; v < n; v++) {
+            dist[v] = tree.getDistance(v);
+            parent[v] = tree.getParent(v);
+        }
+        graph.addGraphListener(this);
+    }
+
+    // Stops listening; the structure is also detached when its source vertex is removed
+    public void close() {
+        graph.removeGraphListener(this);
+        source = -1;
+    }
+
+    public boolean isAttached() {
+        return source >= 0;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public long getDistance(int v) {
+        return dist[v];
+    }
+
+    public int getParent(int v) {
+        return parent[v];
+    }
+
+    // Vertices whose distance or parent was recomputed over all repairs so far
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public List<Integer> pathTo(int v) {
+        if (dist[v] == ShortestPathTree.UNREACHABLE) {
+            return null; // Unreachable
+        }
+        return CsrGraph.buildPath(parent, v);
+    }
+
+    // O(V) copy in the same shape dijkstraTree returns
+    public ShortestPathTree toTree() {
+        int n = graph.getIdBound();
+        int[] treeParent = Arrays.copyOf(parent, n);
+        long[] treeDist = Arrays.copyOf(dist, n);
+        int[] hops = new int[n];
+        Arrays.fill(hops, -1);
+        hops[source] = 0;
+        int[] stack = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (hops[v] >= 0 || treeDist[v] == ShortestPathTree.UNREACHABLE) continue;
+            int top = 0;
+            int at = v;
+            while (hops[at] < 0) {
+                stack[top++] = at;
+                at = treeParent[at];
+            }
+            int h = hops[at];
+            while (top > 0) {
+                hops[stack[--top]] = ++h;
+            }
+        }
+        return new ShortestPathTree(source, treeParent, treeDist, hops);
+    }
+
+    @Override
+    public void vertexAdded(Vertex vertex) {
+        if (vertex.getId() >= dist.length) {
+            grow(Math.max(vertex.getId() + 1, dist.length * 2));
+        }
+        dist[vertex.getId()] = ShortestPathTree.UNREACHABLE;
+        parent[vertex.getId()] = -1;
+    }
+
+    @Override
+    public void vertexRemoved(Vertex vertex) {
+        // Its edges are gone already, so only the source itself needs handling
+        if (vertex.getId() == source) {
+            close();
+        }
+    }
+
+    @Override
+    public void compacted(int[] mapping) {
+        // Renumbering keeps the relative order of ids, so the lowest-id parents stay the lowest
+        if (!isAttached()) {
+            return;
+        }
+        long[] newDist = new long[dist.length];
+        int[] newParent = new int[parent.length];
+        Arrays.fill(newDist, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(newParent, -1);
+        for (int v = 0; v < mapping.length; v++) {
+            if (mapping[v] < 0) continue;
+            newDist[mapping[v]] = dist[v];
+            newParent[mapping[v]] = parent[v] < 0 ? -1 : mapping[parent[v]];
+        }
+        dist = newDist;
+        parent = newParent;
+        source = mapping[source];
+    }
+
+    @Override
+    public void edgeAdded(Edge edge) {
+        decreased(edge);
+    }
+
+    @Override
+    public void edgeRemoved(Edge edge) {
+        increased(edge);
+    }
+
+    @Override
+    public void weightChanged(Edge edge, Integer oldWeight) {
+        long before = oldWeight == null ? 0 : oldWeight;
+        if (weight(edge) < before) {
+            decreased(edge);
+        } else if (weight(edge) > before) {
+            increased(edge);
+        }
+    }
+
+    // The edge got cheaper or appeared: only vertices reached more cheaply through it can change
+    private void decreased(Edge edge) {
+        int u = edge.getFrom().getId();
+        int v = edge.getTo().getId();
+        if (dist[u] == ShortestPathTree.UNREACHABLE) {
+            return;
+        }
+        long candidate = dist[u] + weight(edge);
+        if (candidate > dist[v]) {
+            return;
+        }
+        if (candidate == dist[v]) {
+            if (u < parent[v]) {
+                parent[v] = u;
+                repaired++;
+            }
+            return;
+        }
+
+        beginRepair();
+        dist[v] = candidate;
+        heap.insert(v, candidate);
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            mark[x] = epoch;
+            addChanged(x);
+            for (Edge out : graph.getVertex(x).getEdges()) {
+                int y = out.getTo().getId();
+                long through = dist[x] + weight(out);
+                if (through >= dist[y]) continue;
+                dist[y] = through;
+                if (heap.contains(y)) {
+                    heap.decreaseKey(y, through);
+                } else {
+                    heap.insert(y, through);
+                }
+            }
+        }
+
+        // Improved vertices pick their lowest-id tight predecessor again; anyone else can only
+        // gain an improved vertex as a new tight predecessor with a lower id
+        for (int k = 0; k < changedSize; k++) {
+            int x = changed[k];
+            parent[x] = lowestTightParent(x);
+        }
+        for (int k = 0; k < changedSize; k++) {
+            int x = changed[k];
+            for (Edge out : graph.getVertex(x).getEdges()) {
+                int y = out.getTo().getId();
+                if (mark[y] != epoch && dist[x] + weight(out) == dist[y] && x < parent[y]) {
+                    parent[y] = x;
+                }
+            }
+        }
+        repaired += changedSize;
+    }
+
+    // The edge got dearer or disappeared: nothing changes unless it was a tree edge, and then
+    // only the subtree below it is re-solved from the intact rest of the tree
+    private void increased(Edge edge) {
+        int u = edge.getFrom().getId();
+        int v = edge.getTo().getId();
+        if (parent[v] != u) {
+            return;
+        }
+
+        beginRepair();
+        addChanged(v);
+        mark[v] = epoch;
+        for (int k = 0; k < changedSize; k++) {
+            int x = changed[k];
+            for (Edge out : graph.getVertex(x).getEdges()) {
+                int y = out.getTo().getId();
+                if (parent[y] == x && mark[y] != epoch) {
+                    mark[y] = epoch;
+                    addChanged(y);
+                }
+            }
+        }
+        for (int k = 0; k < changedSize; k++) {
+            dist[changed[k]] = ShortestPathTree.UNREACHABLE;
+        }
+
+        // Seed each subtree vertex with its best way in from outside, then settle the subtree
+        for (int k = 0; k < changedSize; k++) {
+            int x = changed[k];
+            long best = ShortestPathTree.UNREACHABLE;
+            for (Edge in : graph.getVertex(x).getInEdges()) {
+                int p = in.getFrom().getId();
+                if (mark[p] != epoch && dist[p] != ShortestPathTree.UNREACHABLE) {
+                    best = Math.min(best, dist[p] + weight(in));
+                }
+            }
+            if (best != ShortestPathTree.UNREACHABLE) {
+                dist[x] = best;
+                heap.insert(x, best);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            for (Edge out : graph.getVertex(x).getEdges()) {
+                int y = out.getTo().getId();
+                long through = dist[x] + weight(out);
+                // Distances outside the subtree are still exact and cannot drop
+                if (mark[y] != epoch || through >= dist[y]) continue;
+                dist[y] = through;
+                if (heap.contains(y)) {
+                    heap.decreaseKey(y, through);
+                } else {
+                    heap.insert(y, through);
+                }
+            }
+        }
+
+        // Outside the subtree no lowest-id tight predecessor was lost, since none of them was inside it
+        for (int k = 0; k < changedSize; k++) {
+            int x = changed[k];
+            parent[x] = dist[x] == ShortestPathTree.UNREACHABLE ? -1 : lowestTightParent(x);
+        }
+        repaired += changedSize;
+    }
+
+    private int lowestTightParent(int x) {
+        int best = -1;
+        for (Edge in : graph.getVertex(x).getInEdges()) {
+            int p = in.getFrom().getId();
+            if (dist[p] != ShortestPathTree.UNREACHABLE && dist[p] + weight(in) == dist[x] && (best < 0 || p < best)) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private void beginRepair() {
+        if (++epoch == 0) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        changedSize = 0;
+    }
+
+    private void addChanged(int v) {
+        if (changedSize == changed.length) {
+            changed = Arrays.copyOf(changed, changedSize * 2);
+        }
+        changed[changedSize++] = v;
+    }
+
+    private static long weight(Edge edge) {
+        return edge.getWeight() == null ? 0 : edge.getWeight();
+    }
+
+    private void allocate(int capacity) {
+        dist = new long[capacity];
+        parent = new int[capacity];
+        Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parent, -1);
+        mark = new int[capacity];
+        changed = new int[16];
+        heap = new IndexedDaryHeap(capacity);
+    }
+
+    private void grow(int capacity) {
+        int old = dist.length;
+        dist = Arrays.copyOf(dist, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        Arrays.fill(dist, old, capacity, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parent, old, capacity, -1);
+        heap = new IndexedDaryHeap(capacity);
+    }
+}
@@ -0,0 +1,481 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Imports text edge lists produced by other tools. The file is cut into line-aligned chunks that are read
+// and parsed byte by byte in parallel, so no String is ever made per line, and the parsed edges are then
+// reduced to Graph's rules: no loops and at most one edge per vertex pair, the first one in the file winning.
+// A weight of 0 is an error; weights above Graph.MAX_WEIGHT are clamped to it and counted
+//   edges   "u v [w]" per line, 0-based ids, '#' or '%' comments
+//   dimacs  9th DIMACS challenge .gr: "p sp n m" then "a u v w" arcs, 1-based ids, 'c' comments
+//   metis   "n m [fmt [ncon]]" then one adjacency line per vertex, 1-based ids, '%' comments
+public class EdgeListImporter {
+
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final int HEADER_BYTES = 1 << 20;
+    private static final int SPACING = 40;
+
+    public enum Format {
+        EDGES(false), DIMACS(true), METIS(false);
+
+        private final boolean isDirected;
+
+        Format(boolean isDirected) {
+            this.isDirected = isDirected;
+        }
+
+        // What the format usually describes when the caller doesn't say
+        public boolean isDirectedByDefault() {
+            return isDirected;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown format: " + name);
+        }
+    }
+
+    // Called from worker threads as chunks finish
+    public interface Progress {
+        void report(String phase, long done, long total);
+    }
+
+    // Header fields known before the body is parsed
+    private static class Header {
+        long bodyStart;
+        int numVertex = -1;
+        boolean isWeighted;
+        // METIS rows start with an optional size and ncon weights that are skipped
+        int skipPerRow;
+    }
+
+    private static class Chunk {
+        long start;
+        long end;
+        int firstRow;
+        int rows;
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int[] weights = new int[1024];
+        int size;
+        boolean hasWeights;
+        int maxId = -1;
+        int clamped;
+
+        void add(int u, int v, int weight) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weights[size] = weight;
+            size++;
+            maxId = Math.max(maxId, Math.max(u, v));
+        }
+    }
+
+    // Reads non-negative integers from one line of a chunk
+    private static class Scanner {
+        final byte[] data;
+        final long base;
+        int pos;
+        int end;
+        int value;
+
+        Scanner(byte[] data, long base) {
+            this.data = data;
+            this.base = base;
+        }
+
+        boolean next() {
+            while (pos < end && (data[pos] == ' ' || data[pos] == '\t' || data[pos] == '\r')) {
+                pos++;
+            }
+            if (pos == end) {
+                return false;
+            }
+            long result = 0;
+            int begin = pos;
+            while (pos < end && data[pos] >= '0' && data[pos] <= '9') {
+                result = result * 10 + (data[pos++] - '0');
+                if (result > Integer.MAX_VALUE) {
+                    throw error(begin, "Number too large");
+                }
+            }
+            if (pos == begin || (pos < end && data[pos] != ' ' && data[pos] != '\t' && data[pos] != '\r')) {
+                throw error(pos, "Unexpected character '" + (char) data[pos] + "'");
+            }
+            value = (int) result;
+            return true;
+        }
+
+        int require(String what) {
+            if (!next()) {
+                throw error(pos, "Missing " + what);
+            }
+            return value;
+        }
+
+        UncheckedIOException error(int at, String message) {
+            return new UncheckedIOException(new IOException(message + " at byte " + (base + at)));
+        }
+    }
+
+    public static Graph load(Path path, Format format, boolean isDirected, Progress progress) throws IOException {
+        return GraphFile.toGraph(read(path, format, isDirected, progress));
+    }
+
+    public static GraphFile.Contents read(Path path, Format format, boolean isDirected, Progress progress)
+            throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel, format);
+            List<Chunk> chunks = split(channel, header.bodyStart, size);
+
+            // METIS rows are positional, so each chunk first needs to know which row it starts on
+            if (format == Format.METIS) {
+                ParallelFor.run(pool, chunks.size(), 1, (from, to) -> {
+                    for (int c = from; c < to; c++) {
+                        Chunk chunk = chunks.get(c);
+                        chunk.rows = countRows(readChunk(channel, chunk));
+                    }
+                });
+                int row = 0;
+                for (Chunk chunk : chunks) {
+                    chunk.firstRow = row;
+                    row += chunk.rows;
+                }
+                if (row < header.numVertex) {
+                    throw new IOException("Expected " + header.numVertex + " adjacency lines but found " + row);
+                }
+            }
+
+            AtomicLong parsed = new AtomicLong(header.bodyStart);
+            ParallelFor.run(pool, chunks.size(), 1, (from, to) -> {
+                for (int c = from; c < to; c++) {
+                    Chunk chunk = chunks.get(c);
+                    byte[] data = readChunk(channel, chunk);
+                    switch (format) {
+                        case EDGES -> parseEdges(data, chunk);
+                        case DIMACS -> parseDimacs(data, chunk);
+                        case METIS -> parseMetis(data, chunk, header);
+                    }
+                    long done = parsed.addAndGet(chunk.end - chunk.start);
+                    if (progress != null) {
+                        progress.report("Parsing", done, size);
+                    }
+                }
+            });
+
+            int maxId = -1;
+            long total = 0;
+            long clamped = 0;
+            boolean hasWeights = header.isWeighted;
+            for (Chunk chunk : chunks) {
+                maxId = Math.max(maxId, chunk.maxId);
+                total += chunk.size;
+                clamped += chunk.clamped;
+                hasWeights |= chunk.hasWeights;
+            }
+            int n = header.numVertex >= 0 ? header.numVertex : maxId + 1;
+            if (maxId >= n) {
+                throw new IOException("Vertex id " + (maxId + 1) + " is above the " + n + " declared vertices");
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many edges: " + total);
+            }
+            if (progress != null && clamped > 0) {
+                progress.report("Clamping weights above " + Graph.MAX_WEIGHT, clamped, clamped);
+            }
+            if (progress != null) {
+                progress.report("Removing loops and duplicates", 0, total);
+            }
+            return build(pool, chunks, (int) total, n, isDirected, hasWeights);
+        } catch (UncheckedIOException e) {
+            throw new IOException(path + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, Format format) throws IOException {
+        Header header = new Header();
+        if (format == Format.EDGES) {
+            return header;
+        }
+        Chunk first = new Chunk();
+        first.end = Math.min(channel.size(), HEADER_BYTES);
+        byte[] data = readChunk(channel, first);
+        Scanner scanner = new Scanner(data, 0);
+        char comment = format == Format.DIMACS ? 'c' : '%';
+        for (int line = 0; line < first.end; line = scanner.end + 1) {
+            scanner.end = lineEnd(data, line, (int) first.end);
+            scanner.pos = line;
+            if (isBlank(data, line, scanner.end) || data[line] == comment) continue;
+
+            if (format == Format.DIMACS) {
+                // Arcs may not come before the problem line
+                if (data[line] != 'p') {
+                    throw new IOException("Expected the \"p sp n m\" line at byte " + line);
+                }
+                scanner.pos = skipWord(data, skipWord(data, line, scanner.end), scanner.end);
+                header.numVertex = scanner.require("vertex count");
+                header.isWeighted = true;
+                header.bodyStart = scanner.end + 1;
+            } else {
+                header.numVertex = scanner.require("vertex count");
+                scanner.require("edge count");
+                int fmt = scanner.next() ? scanner.value : 0;
+                int ncon = scanner.next() ? scanner.value : 1;
+                header.isWeighted = fmt % 10 == 1;
+                header.skipPerRow = (fmt / 100 % 10 == 1 ? 1 : 0) + (fmt / 10 % 10 == 1 ? ncon : 0);
+                header.bodyStart = scanner.end + 1;
+            }
+            return header;
+        }
+        throw new IOException("No header line in the first " + HEADER_BYTES + " bytes");
+    }
+
+    // Cuts [start, size) into chunks that end just after a newline
+    private static List<Chunk> split(FileChannel channel, long start, long size) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (start < size) {
+            long end = Math.min(size, start + CHUNK_BYTES);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (probe.get(i) == '\n') newline = i;
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+            }
+            Chunk chunk = new Chunk();
+            chunk.start = start;
+            chunk.end = Math.min(end, size);
+            chunks.add(chunk);
+            start = chunk.end;
+        }
+        return chunks;
+    }
+
+    private static byte[] readChunk(FileChannel channel, Chunk chunk) {
+        byte[] data = new byte[(int) (chunk.end - chunk.start)];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            // Positional reads leave the channel's own position alone, so workers can share it
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, chunk.start + buffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return data;
+    }
+
+    private static void parseEdges(byte[] data, Chunk chunk) {
+        Scanner scanner = new Scanner(data, chunk.start);
+        for (int line = 0; line < data.length; line = scanner.end + 1) {
+            scanner.end = lineEnd(data, line, data.length);
+            scanner.pos = line;
+            if (isBlank(data, line, scanner.end) || data[line] == '#' || data[line] == '%') continue;
+            int u = scanner.require("source vertex");
+            int v = scanner.require("target vertex");
+            // Anything after the weight, such as a timestamp, is ignored
+            int at = scanner.pos;
+            if (scanner.next()) {
+                chunk.hasWeights = true;
+                chunk.add(u, v, weight(scanner, at, chunk));
+            } else {
+                chunk.add(u, v, 1);
+            }
+        }
+    }
+
+    private static void parseDimacs(byte[] data, Chunk chunk) {
+        Scanner scanner = new Scanner(data, chunk.start);
+        for (int line = 0; line < data.length; line = scanner.end + 1) {
+            scanner.end = lineEnd(data, line, data.length);
+            if (isBlank(data, line, scanner.end) || data[line] == 'c') continue;
+            if (data[line] != 'a') {
+                throw scanner.error(line, "Expected an \"a u v w\" arc");
+            }
+            scanner.pos = skipWord(data, line, scanner.end);
+            int u = scanner.require("source vertex");
+            int v = scanner.require("target vertex");
+            int at = scanner.pos;
+            scanner.require("weight");
+            int weight = weight(scanner, at, chunk);
+            if (u == 0 || v == 0) {
+                throw scanner.error(line, "Vertex ids start at 1");
+            }
+            chunk.add(u - 1, v - 1, weight);
+        }
+    }
+
+    private static void parseMetis(byte[] data, Chunk chunk, Header header) {
+        Scanner scanner = new Scanner(data, chunk.start);
+        int row = chunk.firstRow;
+        for (int line = 0; line < data.length && row < header.numVertex; line = scanner.end + 1) {
+            scanner.end = lineEnd(data, line, data.length);
+            if (line < scanner.end && data[line] == '%') continue;
+            scanner.pos = line;
+            for (int k = 0; k < header.skipPerRow; k++) {
+                scanner.require("vertex weight");
+            }
+            while (scanner.next()) {
+                int v = scanner.value;
+                if (v == 0) {
+                    throw scanner.error(scanner.pos, "Vertex ids start at 1");
+                }
+                int weight = 1;
+                if (header.isWeighted) {
+                    int at = scanner.pos;
+                    scanner.require("edge weight");
+                    weight = weight(scanner, at, chunk);
+                }
+                chunk.add(row, v - 1, weight);
+            }
+            row++;
+        }
+    }
+
+    // The weight the scanner just read, which started at byte at
+    private static int weight(Scanner scanner, int at, Chunk chunk) {
+        if (scanner.value < 1) {
+            throw scanner.error(at, "Weight must be at least 1");
+        }
+        if (scanner.value > Graph.MAX_WEIGHT) {
+            chunk.clamped++;
+            return Graph.MAX_WEIGHT;
+        }
+        return scanner.value;
+    }
+
+    // Adjacency lines, comments excluded; an empty line is a vertex without neighbours
+    private static int countRows(byte[] data) {
+        int rows = 0;
+        for (int line = 0; line < data.length; line = lineEnd(data, line, data.length) + 1) {
+            if (data[line] != '%') rows++;
+        }
+        return rows;
+    }
+
+    private static GraphFile.Contents build(ForkJoinPool pool, List<Chunk> chunks, int total, int n,
+                                            boolean isDirected, boolean isWeighted) {
+        int[] from = new int[total];
+        int[] to = new int[total];
+        int[] weights = new int[total];
+        int m = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.from, 0, from, m, chunk.size);
+            System.arraycopy(chunk.to, 0, to, m, chunk.size);
+            System.arraycopy(chunk.weights, 0, weights, m, chunk.size);
+            m += chunk.size;
+        }
+
+        int kept = removeLoopsAndDuplicates(pool, n, from, to, weights, m);
+
+        // Imported files carry no coordinates, so vertices start on a square grid
+        int columns = (int) Math.ceil(Math.sqrt(n));
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = SPACING + (v % Math.max(1, columns)) * SPACING;
+            y[v] = SPACING + (v / Math.max(1, columns)) * SPACING;
+        }
+        return new GraphFile.Contents(isDirected, isWeighted, n, x, y, kept, from, to,
+                isWeighted ? weights : null);
+    }
+
+    // Reduces m edges in place to Graph's rules and returns how many are left; weights may be null
+    static int removeLoopsAndDuplicates(ForkJoinPool pool, int n, int[] from, int[] to, int[] weights, int m) {
+        // Group edges by their lower endpoint, then sort each group by (higher endpoint, position) so the
+        // first edge of every pair is the one Graph.addEdge would have kept. Survivors keep their order
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (from[e] != to[e]) {
+                offsets[Math.min(from[e], to[e]) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        long[] packed = new long[offsets[n]];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            if (from[e] != to[e]) {
+                packed[cursor[Math.min(from[e], to[e])]++] = ((long) Math.max(from[e], to[e]) << 32) | e;
+            }
+        }
+        boolean[] keep = new boolean[m];
+        ParallelFor.run(pool, n, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                Arrays.sort(packed, offsets[v], offsets[v + 1]);
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    if (i == offsets[v] || (packed[i] >>> 32) != (packed[i - 1] >>> 32)) {
+                        keep[(int) packed[i]] = true;
+                    }
+                }
+            }
+        });
+
+        int kept = 0;
+        for (int e = 0; e < m; e++) {
+            if (keep[e]) {
+                from[kept] = from[e];
+                to[kept] = to[e];
+                if (weights != null) {
+                    weights[kept] = weights[e];
+                }
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private static int lineEnd(byte[] data, int from, int end) {
+        int i = from;
+        while (i < end && data[i] != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isBlank(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] != ' ' && data[i] != '\t' && data[i] != '\r') return false;
+        }
+        return true;
+    }
+
+    // Position just past the first whitespace-delimited word starting at from
+    private static int skipWord(byte[] data, int from, int end) {
+        int i = from;
+        while (i < end && (data[i] == ' ' || data[i] == '\t')) {
+            i++;
+        }
+        while (i < end && data[i] != ' ' && data[i] != '\t' && data[i] != '\r') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -1,60 +1,177 @@
+import java.awt.Point;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 public class Graph {
 
+    // Weights run from 1 to this, the range the canvas asks for
+    public static final int MAX_WEIGHT = 99;
+
     protected boolean isDirected;
     protected boolean isWeighted;
+    // Indexed by vertex id; removed vertices leave a null tombstone until compact()
     protected ArrayList<Vertex> vertices;
+    private final EdgeIndex edgeIndex;
+    private int numVertex;
+    // Bumped by every mutation, so snapshots and cached results can tell when they are stale
+    private long version;
+    private CsrGraph frozen;
+    private long frozenVersion = -1;
+    private final ShortestPathCache pathCache = new ShortestPathCache(64);
+    private final List<GraphListener> listeners = new CopyOnWriteArrayList<>();
 
     public Graph(boolean isDirected, boolean isWeighted, ArrayList<Vertex> vertices) {
         this.isDirected = isDirected;
         this.isWeighted = isWeighted;
         this.vertices = vertices;
+        int numEdge = 0;
+        for (Vertex vertex : vertices) {
+            numEdge += vertex.getEdges().size();
+        }
+        this.edgeIndex = new EdgeIndex(numEdge);
+        this.numVertex = vertices.size();
+        reindexVertices();
+        for (Vertex vertex : vertices) {
+            vertex.getInEdges().clear();
+        }
+        for (Vertex vertex : vertices) {
+            for (Edge edge : vertex.getEdges()) {
+                edge.getTo().getInEdges().add(edge);
+                edgeIndex.put(edge);
+            }
+        }
     }
 
     public void addVertex(Vertex vertex) {
+        vertex.setId(vertices.size());
         vertices.add(vertex);
-        reindexVertices();
+        numVertex++;
+        version++;
+        for (GraphListener listener : listeners) {
+            listener.vertexAdded(vertex);
+        }
+    }
+
+    // Positions play no part in the algorithms, so a move leaves the version and the caches alone
+    public void moveVertex(Vertex vertex, Point position) {
+        if (getVertex(vertex.getId()) != vertex) {
+            return;
+        }
+        Point oldPosition = vertex.getPosition();
+        vertex.setPosition(position);
+        for (GraphListener listener : listeners) {
+            listener.vertexMoved(vertex, oldPosition);
+        }
+    }
+
+    // Moves every live vertex with an id below x.length to (x[id], y[id]), with one positionsChanged for all
+    public void setPositions(int[] x, int[] y) {
+        for (int id = 0; id < Math.min(x.length, vertices.size()); id++) {
+            Vertex vertex = vertices.get(id);
+            if (vertex != null) {
+                vertex.setPosition(new Point(x[id], y[id]));
+            }
+        }
+        for (GraphListener listener : listeners) {
+            listener.positionsChanged();
+        }
     }
 
     public void connectAllVertices() {
-        for (int i = 0; i < vertices.size(); i++) {
+        connectAllVertices(0, getIdBound());
+    }
+
+    // Connects every live vertex with an id in [fromId, toId) to each live vertex with a higher id,
+    // so a large graph can be connected a slice at a time
+    public void connectAllVertices(int fromId, int toId) {
+        for (int i = fromId; i < toId; i++) {
+            Vertex from = getVertex(i);
+            if (from == null) continue;
             for (int j = i + 1; j < vertices.size(); j++) {
-                Vertex from = vertices.get(i);
                 Vertex to = vertices.get(j);
-                addEdge(from, to);
+                if (to != null) {
+                    addEdge(from, to);
+                }
             }
         }
     }
 
     public void removeVertex(Vertex vertex) {
-        vertices.remove(vertex);
-        for (Vertex v : vertices) {
-            v.getEdges().removeIf(edge -> edge.getFrom().equals(vertex) || edge.getTo().equals(vertex));
+        if (getVertex(vertex.getId()) != vertex) {
+            return;
+        }
+        // Only the incident edges are touched, found through the out and in lists and detached
+        // one at a time from the back, so listeners see a consistent graph after every edge
+        ArrayList<Edge> outEdges = vertex.getEdges();
+        while (!outEdges.isEmpty()) {
+            Edge edge = outEdges.remove(outEdges.size() - 1);
+            edgeIndex.remove(edge.getFrom().getId(), edge.getTo().getId());
+            edge.getTo().getInEdges().remove(edge);
+            version++;
+            fireEdgeRemoved(edge);
+        }
+        ArrayList<Edge> inEdges = vertex.getInEdges();
+        while (!inEdges.isEmpty()) {
+            Edge edge = inEdges.remove(inEdges.size() - 1);
+            edgeIndex.remove(edge.getFrom().getId(), edge.getTo().getId());
+            edge.getFrom().removeEdge(edge);
+            version++;
+            fireEdgeRemoved(edge);
+        }
+        vertices.set(vertex.getId(), null);
+        numVertex--;
+        version++;
+        for (GraphListener listener : listeners) {
+            listener.vertexRemoved(vertex);
         }
-        reindexVertices();
     }
 
-    public Edge findReverseEdge(Edge edge) {
-        for (Vertex vertex : vertices) {
-            for (Edge e : vertex.getEdges()) {
-                if (e.getFrom().equals(edge.getTo()) && e.getTo().equals(edge.getFrom())) {
-                    return e;
-                }
+    // Renumbers the live vertices densely in one pass, returning the old id -> new id map (-1 for removed)
+    public int[] compact() {
+        int[] mapping = new int[vertices.size()];
+        ArrayList<Vertex> live = new ArrayList<>(numVertex);
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex vertex = vertices.get(i);
+            if (vertex == null) {
+                mapping[i] = -1;
+            } else {
+                mapping[i] = live.size();
+                live.add(vertex);
+            }
+        }
+        if (live.size() != vertices.size()) {
+            vertices = live;
+            reindexVertices();
+            rebuildEdgeIndex();
+            version++;
+            for (GraphListener listener : listeners) {
+                listener.compacted(mapping);
             }
         }
-        return null;
+        return mapping;
+    }
+
+    public boolean hasTombstones() {
+        return numVertex != vertices.size();
+    }
+
+    public Edge findReverseEdge(Edge edge) {
+        return edgeIndex.get(edge.getTo().getId(), edge.getFrom().getId());
     }
 
     public void setWeight(Edge edge, Integer weight) {
-        if (getEdges().contains(edge)) {
-            Edge target = getEdge(edge);
-            if (target != null) {
-                target.setWeight(weight);
-                Edge reverse = findReverseEdge(target);
-                if (reverse != null) {
-                    reverse.setWeight(weight);
-                }
+        Edge target = getEdge(edge);
+        if (target != null) {
+            Integer oldWeight = target.getWeight();
+            version++;
+            target.setWeight(weight);
+            fireWeightChanged(target, oldWeight);
+            Edge reverse = findReverseEdge(target);
+            if (reverse != null) {
+                oldWeight = reverse.getWeight();
+                reverse.setWeight(weight);
+                fireWeightChanged(reverse, oldWeight);
             }
         }
     }
@@ -65,53 +182,111 @@ public class Graph {
             return;
         }
 
-        if (from.getEdges().stream().anyMatch(edge -> edge.getTo().equals(to))) {
-            // Prevent more than 1 edge between two vertices
-            return;
-        }
-        if (to.getEdges().stream().anyMatch(edge -> edge.getTo().equals(from))) {
+        if (edgeIndex.contains(from.getId(), to.getId()) || edgeIndex.contains(to.getId(), from.getId())) {
             // Prevent more than 1 edge between two vertices
             return;
         }
 
+        version++;
         int defaultWeight = isWeighted ? 1 : 0;
         Edge edge = new Edge(from, to, defaultWeight);
         from.addEdge(edge);
+        to.getInEdges().add(edge);
+        edgeIndex.put(edge);
+        fireEdgeAdded(edge);
         if (!isDirected) {
-            to.addEdge(new Edge(to, from, defaultWeight));
+            Edge reverse = new Edge(to, from, defaultWeight);
+            to.addEdge(reverse);
+            from.getInEdges().add(reverse);
+            edgeIndex.put(reverse);
+            fireEdgeAdded(reverse);
         }
     }
 
     public void removeEdge(Vertex from, Vertex to) {
-        from.getEdges().removeIf(edge -> edge.getTo().equals(to));
+        Edge edge = edgeIndex.remove(from.getId(), to.getId());
+        if (edge != null) {
+            version++;
+            from.removeEdge(edge);
+            to.getInEdges().remove(edge);
+            fireEdgeRemoved(edge);
+        }
         if (!isDirected) {
-            to.getEdges().removeIf(edge -> edge.getTo().equals(from));
+            Edge reverse = edgeIndex.remove(to.getId(), from.getId());
+            if (reverse != null) {
+                to.removeEdge(reverse);
+                from.getInEdges().remove(reverse);
+                fireEdgeRemoved(reverse);
+            }
+        }
+    }
+
+    public void addGraphListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeGraphListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireEdgeAdded(Edge edge) {
+        for (GraphListener listener : listeners) {
+            listener.edgeAdded(edge);
+        }
+    }
+
+    private void fireEdgeRemoved(Edge edge) {
+        for (GraphListener listener : listeners) {
+            listener.edgeRemoved(edge);
+        }
+    }
+
+    private void fireWeightChanged(Edge edge, Integer oldWeight) {
+        for (GraphListener listener : listeners) {
+            listener.weightChanged(edge, oldWeight);
         }
     }
 
     public List<Vertex> getVertices() {
-        return vertices;
+        if (!hasTombstones()) {
+            return vertices;
+        }
+        List<Vertex> live = new ArrayList<>(numVertex);
+        for (Vertex vertex : vertices) {
+            if (vertex != null) {
+                live.add(vertex);
+            }
+        }
+        return live;
+    }
+
+    public Vertex getVertex(int id) {
+        return id >= 0 && id < vertices.size() ? vertices.get(id) : null;
+    }
+
+    // Upper bound (exclusive) of the vertex ids currently in use, tombstones included
+    public int getIdBound() {
+        return vertices.size();
     }
 
     public List<Edge> getEdges() {
         List<Edge> edges = new ArrayList<>();
-        for (Vertex vertex : vertices) {
+        for (Vertex vertex : getVertices()) {
             edges.addAll(vertex.getEdges());
         }
         return edges;
     }
 
     public Edge getEdge(Edge target) {
-        for (Edge edge : getEdges()) {
-            if (edge.equals(target)) {
-                return edge;
-            }
-        }
-        return null;
+        return getEdge(target.getFrom().getId(), target.getTo().getId());
+    }
+
+    public Edge getEdge(int from, int to) {
+        return edgeIndex.get(from, to);
     }
 
     public void printAdjacencyList() {
-        for (Vertex vertex : vertices) {
+        for (Vertex vertex : getVertices()) {
             System.out.print(vertex.getId() + ": ");
             for (Edge edge : vertex.getEdges()) {
                 if (isDirected) {
@@ -133,125 +308,104 @@ public class Graph {
         }
     }
 
-    public List<Integer> bfs(int start, int end) {
-        Queue<Vertex> queue = new LinkedList<>();
-        boolean[] visited = new boolean[vertices.size()];
-        int[] parent = new int[vertices.size()];
-        Arrays.fill(parent, -1);
-
-        queue.add(vertices.get(start));
-        visited[start] = true;
-
-        while (!queue.isEmpty()) {
-            Vertex current = queue.poll();
-            int u = current.getId();
-
-            if (u == end) {
-                List<Integer> path = new ArrayList<>();
-                for (int at = end; at != -1; at = parent[at]) {
-                    path.add(at);
-                }
-                Collections.reverse(path);
-                return path;
+    private void rebuildEdgeIndex() {
+        edgeIndex.clear();
+        for (Vertex vertex : getVertices()) {
+            for (Edge edge : vertex.getEdges()) {
+                edgeIndex.put(edge);
             }
+        }
+    }
 
-            for (Edge edge : current.getEdges()) {
-                int v = edge.getTo().getId();
-                if (!visited[v]) {
-                    queue.add(vertices.get(v));
-                    visited[v] = true;
-                    parent[v] = u;
-                }
-            }
+    public long getVersion() {
+        return version;
+    }
+
+    // The snapshot is rebuilt only after a mutation
+    public CsrGraph freeze() {
+        if (frozen == null || frozenVersion != version) {
+            frozen = CsrGraph.of(this);
+            frozenVersion = version;
         }
-        return null; // Unreachable
+        return frozen;
+    }
+
+    public ShortestPathCache getPathCache() {
+        return pathCache;
+    }
+
+    // Single-source result for "bfs", "dfs" or "dijk", answered from the cache while the graph is unchanged
+    public ShortestPathTree cachedTree(String algorithm, int start) {
+        return pathCache.get(this, algorithm, start);
+    }
+
+    public List<Integer> bfs(int start, int end) {
+        return freeze().bfs(start, end);
     }
 
     public List<Integer> dfs(int start, int end) {
-        Stack<Vertex> stack = new Stack<>();
-        boolean[] visited = new boolean[vertices.size()];
-        int[] parent = new int[vertices.size()];
-        Arrays.fill(parent, -1);
+        return freeze().dfs(start, end);
+    }
 
-        stack.push(vertices.get(start));
+    public List<Integer> dijkstra(int start, int end) {
+        return freeze().dijkstra(start, end);
+    }
 
-        while (!stack.isEmpty()) {
-            Vertex current = stack.pop();
-            int u = current.getId();
+    public ShortestPathTree bfsTree(int start) {
+        return freeze().bfsTree(start);
+    }
 
-            if (visited[u]) continue;
-            visited[u] = true;
+    public ShortestPathTree dfsTree(int start) {
+        return freeze().dfsTree(start);
+    }
 
-            if (u == end) {
-                List<Integer> path = new ArrayList<>();
-                for (int at = end; at != -1; at = parent[at]) {
-                    path.add(at);
-                }
-                Collections.reverse(path);
-                return path;
-            }
+    public ShortestPathTree dijkstraTree(int start) {
+        return freeze().dijkstraTree(start);
+    }
 
-            List<Edge> edges = new ArrayList<>(current.getEdges());
-            edges.sort(Comparator.comparingInt(e -> e.getTo().getId()));
-            for (Edge edge : edges) {
-                int v = edge.getTo().getId();
-                if (!visited[v]) {
-                    stack.push(vertices.get(v));
-                    parent[v] = u;
-                }
-            }
-        }
-        return null; // Unreachable
+    public ShortestPathTree directionOptimizingBfs(int start) {
+        return DirectionOptimizingBfs.run(freeze(), start);
     }
 
-    public List<Integer> dijkstra(int start, int end) {
-        int n = vertices.size();
-        int[] dist = new int[n];
-        int[] parent = new int[n];
-        boolean[] visited = new boolean[n];
-        Arrays.fill(dist, Integer.MAX_VALUE);
-        Arrays.fill(parent, -1);
-        dist[start] = 0;
-
-        PriorityQueue<Vertex> pq = new PriorityQueue<>(Comparator.comparingInt(v -> dist[v.getId()]));
-        pq.add(vertices.get(start));
-
-        while (!pq.isEmpty()) {
-            Vertex current = pq.poll();
-            int u = current.getId();
-            if (visited[u]) continue;
-            visited[u] = true;
-
-            for (Edge edge : current.getEdges()) {
-                int v = edge.getTo().getId();
-                int weight = edge.getWeight();
-                if (dist[u] + weight < dist[v]) {
-                    dist[v] = dist[u] + weight;
-                    parent[v] = u;
-                    pq.add(vertices.get(v));
-                }
-            }
-        }
+    public ShortestPathTree parallelBfs(int start) {
+        return ParallelBfs.run(freeze(), start);
+    }
 
-        if (dist[end] == Integer.MAX_VALUE) {
-            return null; // Unreachable
-        }
+    public ShortestPathTree deltaStepping(int start, long delta) {
+        return DeltaStepping.run(freeze(), start, delta, ForkJoinPool.commonPool());
+    }
+
+    // Component label of every vertex id, -1 for removed ones; see Components
+    public int[] connectedComponents() {
+        return Components.connected(freeze(), liveIds());
+    }
+
+    public int[] stronglyConnectedComponents() {
+        return Components.strong(freeze(), liveIds());
+    }
 
-        List<Integer> path = new ArrayList<>();
-        for (int at = end; at != -1; at = parent[at]) {
-            path.add(at);
+    private boolean[] liveIds() {
+        boolean[] live = new boolean[getIdBound()];
+        for (Vertex vertex : getVertices()) {
+            live[vertex.getId()] = true;
         }
-        Collections.reverse(path);
-        return path;
+        return live;
     }
 
     public void randomizeWeights(int max) {
+        randomizeWeights(max, new Random(), 0, getIdBound());
+    }
+
+    // Randomizes the edges leaving the vertices with an id in [fromId, toId)
+    public void randomizeWeights(int max, Random rand, int fromId, int toId) {
         if (!isWeighted) {
             return; // No weights to randomize in an unweighted graph
         }
 
-        Random rand = new Random();
-        for (Vertex vertex : vertices) {
+        version++;
+        for (int id = fromId; id < Math.min(toId, vertices.size()); id++) {
+            Vertex vertex = vertices.get(id);
+            if (vertex == null) continue;
             for (Edge edge : vertex.getEdges()) {
                 setWeight(edge, rand.nextInt(max) + 1);
             }
@@ -259,10 +413,10 @@ public class Graph {
     }
 
     public int getNumVertex() {
-        return vertices.size();
+        return numVertex;
     }
 
     public int getNumEdge() {
-        return getEdges().size();
+        return edgeIndex.size();
     }
 }
\ No newline at end of file
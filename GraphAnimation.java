@@ -1,5 +1,9 @@
 public interface GraphAnimation {
 
+    // Moves the animation to where it should be by now; called from a Swing timer, so a late tick catches up
+    // by applying more events rather than falling behind
     void advanceAnimation();
 
+    boolean isFinished();
+
 }
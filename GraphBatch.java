@@ -0,0 +1,236 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Headless query runner: java GraphBatch {graph} [queries|-] [--out file] [--threads n] [--format edges|dimacs|metis]
+// Reads bfs/dfs/dijk lines as typed into the console, runs them on a worker pool against one immutable
+// CSR snapshot and writes the results in input order, then prints throughput, latency and service time percentiles
+public class GraphBatch {
+
+    // Queries handed to a worker at once, and how many batches may be in flight per worker
+    private static final int BATCH = 256;
+    private static final int WINDOW_PER_THREAD = 4;
+
+    // Latency runs from the batch's submission to the pool, so it includes the wait for a worker and for the
+    // queries ahead in the batch; service time is the query alone
+    private record Result(String text, long[] latencies, long[] services, int errors) {
+    }
+
+    private record Totals(long[] latencies, long[] services, int count, long errors) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: GraphBatch {graph} [queries|-] [--out file] [--threads n] [--format edges|dimacs|metis]");
+            System.exit(2);
+        }
+        Path graphPath = Path.of(args[0]);
+        String queries = "-";
+        String out = null;
+        String format = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--format" -> format = args[++i];
+                default -> queries = args[i];
+            }
+        }
+
+        long loadBegin = System.nanoTime();
+        CsrGraph graph = format == null ? GraphFile.loadCsr(graphPath) : loadEdgeList(graphPath, format);
+        System.err.println("Loaded " + graphPath + " (V: " + graph.getNumVertex() + ", E: "
+                + (graph.isDirected ? graph.getNumEdge() : graph.getNumEdge() / 2) + ") in "
+                + (System.nanoTime() - loadBegin) / 1_000_000 + " ms");
+
+        try (BufferedReader in = queries.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(queries));
+             Writer output = new BufferedWriter(out == null
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Path.of(out)), 1 << 16)) {
+            run(graph, in, output, threads);
+        }
+    }
+
+    private static CsrGraph loadEdgeList(Path path, String format) throws IOException {
+        EdgeListImporter.Format parsed = EdgeListImporter.Format.of(format);
+        GraphFile.Contents contents = EdgeListImporter.read(path, parsed, parsed.isDirectedByDefault(), null);
+        return CsrGraph.fromEdges(contents.isDirected(), contents.isWeighted(), contents.numVertex(),
+                contents.from(), contents.to(), contents.weights(), contents.numEdge());
+    }
+
+    public static void run(CsrGraph graph, BufferedReader in, Writer output, int threads) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        // A bounded window of pending batches keeps the output in input order and the reader from running ahead
+        BlockingQueue<Future<Result>> pending = new ArrayBlockingQueue<>(threads * WINDOW_PER_THREAD);
+        FutureTask<Totals> writer = new FutureTask<>(() -> write(pending, output));
+        // Whatever fails from here on, no worker or writer thread is left behind to keep the JVM alive
+        try {
+            new Thread(writer, "batch-writer").start();
+
+            long begin = System.nanoTime();
+            String[] batch = new String[BATCH];
+            int size = 0;
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.isBlank()) continue;
+                batch[size++] = line;
+                if (size == BATCH) {
+                    enqueue(pending, submit(workers, graph, batch, size), writer);
+                    batch = new String[BATCH];
+                    size = 0;
+                }
+            }
+            if (size > 0) {
+                enqueue(pending, submit(workers, graph, batch, size), writer);
+            }
+            enqueue(pending, CompletableFuture.completedFuture(null), writer);
+
+            Totals totals = writer.get();
+            report(totals, System.nanoTime() - begin);
+        } finally {
+            // Both are finished already unless something failed, and then the interrupts stop them
+            writer.cancel(true);
+            workers.shutdownNow();
+        }
+    }
+
+    // Waits for room in the window, but gives up as soon as the writer has failed
+    private static void enqueue(BlockingQueue<Future<Result>> pending, Future<Result> batch, FutureTask<Totals> writer)
+            throws Exception {
+        while (!pending.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+            }
+        }
+    }
+
+    private static Future<Result> submit(ExecutorService workers, CsrGraph graph, String[] lines, int size) {
+        long submitted = System.nanoTime();
+        return workers.submit(() -> {
+            StringBuilder text = new StringBuilder(size * 64);
+            long[] latencies = new long[size];
+            long[] services = new long[size];
+            int count = 0;
+            int errors = 0;
+            for (int i = 0; i < size; i++) {
+                long begin = System.nanoTime();
+                if (!execute(graph, lines[i], text)) {
+                    errors++;
+                    continue;
+                }
+                long end = System.nanoTime();
+                latencies[count] = end - submitted;
+                services[count++] = end - begin;
+            }
+            return new Result(text.toString(), Arrays.copyOf(latencies, count), Arrays.copyOf(services, count),
+                    errors);
+        });
+    }
+
+    // Writes batches in input order as they complete, collecting their latencies and service times
+    private static Totals write(BlockingQueue<Future<Result>> pending, Writer output) throws Exception {
+        long[] latencies = new long[1024];
+        long[] services = new long[1024];
+        int count = 0;
+        long errors = 0;
+        for (Future<Result> future = pending.take(); ; future = pending.take()) {
+            Result result = future.get();
+            if (result == null) break;
+            output.write(result.text());
+            int added = result.latencies().length;
+            if (count + added > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + added));
+                services = Arrays.copyOf(services, latencies.length);
+            }
+            System.arraycopy(result.latencies(), 0, latencies, count, added);
+            System.arraycopy(result.services(), 0, services, count, added);
+            count += added;
+            errors += result.errors();
+        }
+        output.flush();
+        return new Totals(latencies, services, count, errors);
+    }
+
+    // Same commands and output as the console; false when the line is not a valid query
+    static boolean execute(CsrGraph graph, String line, StringBuilder out) {
+        String[] parts = line.trim().split("\\s+");
+        String title = switch (parts[0]) {
+            case "bfs" -> "Running BFS...";
+            case "dfs" -> "Running DFS...";
+            case "dijk" -> "Running Dijkstra's algorithm...";
+            default -> null;
+        };
+        if (title == null || parts.length < 3) {
+            return invalid(line, out);
+        }
+        int start;
+        int end;
+        try {
+            start = Integer.parseInt(parts[1]);
+            end = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return invalid(line, out);
+        }
+        if (start < 0 || start >= graph.getNumVertex() || end < 0 || end >= graph.getNumVertex()) {
+            return invalid(line, out);
+        }
+
+        List<Integer> path = switch (parts[0]) {
+            case "bfs" -> graph.bfs(start, end);
+            case "dfs" -> graph.dfs(start, end);
+            default -> graph.dijkstra(start, end);
+        };
+        out.append(title).append(" (from ").append(start).append(" to ").append(end).append(")\n");
+        if (path == null) {
+            out.append("Unreachable\n\n");
+        } else {
+            // Appended id by id, since a DFS path can run to most of the graph
+            long length = 0;
+            out.append("Path: [");
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                    length += graph.getWeight(path.get(i - 1), path.get(i));
+                }
+                out.append(path.get(i).intValue());
+            }
+            out.append("]\n");
+            out.append("Length: ").append(length).append("\n\n");
+        }
+        return true;
+    }
+
+    private static boolean invalid(String line, StringBuilder out) {
+        out.append("Invalid query: ").append(line).append('\n');
+        return false;
+    }
+
+    private static void report(Totals totals, long elapsed) {
+        int count = totals.count();
+        System.err.printf("Queries: %d (%d invalid) in %.3f s, %.0f queries/s%n", count, totals.errors(),
+                elapsed / 1e9, count / (elapsed / 1e9));
+        if (count > 0) {
+            reportPercentiles("Latency us", Arrays.copyOf(totals.latencies(), count));
+            reportPercentiles("Service time us", Arrays.copyOf(totals.services(), count));
+        }
+    }
+
+    private static void reportPercentiles(String label, long[] values) {
+        Arrays.sort(values);
+        System.err.printf("%s: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n", label,
+                percentile(values, 50) / 1e3, percentile(values, 90) / 1e3, percentile(values, 99) / 1e3,
+                percentile(values, 99.9) / 1e3, values[values.length - 1] / 1e3);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+}
@@ -1,11 +1,14 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.List;
 
 public class GraphCanvas extends JPanel {
 
     private Graph graph;
+    private SpatialIndex index;
     private String mode;
     private Vertex selectedVertex;
     private JButton verticesButton;
@@ -18,27 +21,88 @@ public class GraphCanvas extends JPanel {
     private boolean isDirected;
     private boolean isWeighted;
     private final GraphConsole console;
+    // View transform: screen = world * scale + offset
+    private double scale = 1;
+    private double offsetX;
+    private double offsetY;
+    private Point panFrom;
+    // Cached rendering of the graph and what it was drawn for
+    private BufferedImage layer;
+    private long layerChanges = -1;
+    private double layerScale;
+    private double layerOffsetX;
+    private double layerOffsetY;
+    private Detail layerDetail = Detail.FULL;
+    // Animation being shown, how many of its events the layer has, and the graph state it was recorded for
+    private TraceAnimation animation;
+    private int layerEvents;
+    private long animationChanges;
+    private final Timer animationTimer = new Timer(15, e -> stepAnimation());
+    // Component label per vertex id to colour vertices by, and the graph state they were computed for
+    private int[] components;
+    private long componentChanges;
+
+    private enum Detail {
+        FULL, LINES, DENSITY
+    }
+
+    private static final double MIN_SCALE = 1e-4;
+    private static final double MAX_SCALE = 8;
+    private static final int FULL_DETAIL_LIMIT = 3000;
+    private static final double FULL_DETAIL_SCALE = 0.4;
+    private static final int LINES_LIMIT = 40000;
+    private static final Color REACHED_COLOR = new Color(255, 190, 70);
+    private static final Color SETTLED_COLOR = new Color(110, 200, 110);
+    private static final Color TREE_COLOR = new Color(20, 130, 40);
 
     public static JDialog guideDialog;
 
     public GraphCanvas() {
         promptGraphAttributes();
         graph = new Graph(isDirected, isWeighted, new ArrayList<>());
+        index = new SpatialIndex(graph);
         mode = "Vertices";
         selectedVertex = null;
         isLocked = false;
 
         console = new GraphConsole(this);
 
-        addMouseListener(new MouseAdapter() {
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) {
+                    panFrom = e.getPoint();
+                }
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                // Any button but the left one pans
+                if (panFrom != null) {
+                    offsetX += e.getX() - panFrom.x;
+                    offsetY += e.getY() - panFrom.y;
+                    panFrom = e.getPoint();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getPoint(), Math.pow(1.1, -e.getPreciseWheelRotation()));
+            }
+
             @Override
             public void mouseReleased(MouseEvent e) {
+                if (panFrom != null) {
+                    panFrom = null;
+                    return;
+                }
                 if (isLocked) return;
 
-                Point clickedPoint = e.getPoint();
+                Point clickedPoint = toWorld(e.getPoint());
                 switch (mode) {
                     case "Vertices" -> {
-                        Vertex vertex = new Vertex(graph.getVertices().size());
+                        Vertex vertex = new Vertex(graph.getIdBound());
                         vertex.setPosition(clickedPoint);
                         graph.addVertex(vertex);
                         repaint();
@@ -48,7 +112,10 @@ public class GraphCanvas extends JPanel {
                     case "Weight" -> handleWeightMode(clickedPoint);
                 }
             }
-        });
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
 
         setupUI();
     }
@@ -62,55 +129,58 @@ public class GraphCanvas extends JPanel {
     }
 
     private void handleEdgeMode(Point clickedPoint) {
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.getPosition().distance(clickedPoint) <= 10) {
-                if (selectedVertex == null) {
-                    selectedVertex = vertex;
-                } else {
-                    graph.addEdge(selectedVertex, vertex);
-                    selectedVertex = null;
-                }
-                repaint();
-                break;
+        Vertex vertex = index.vertexAt(clickedPoint, hitRadius());
+        if (vertex != null) {
+            if (selectedVertex == null) {
+                selectedVertex = vertex;
+            } else {
+                graph.addEdge(selectedVertex, vertex);
+                selectedVertex = null;
             }
+            repaint();
         }
     }
 
     private void handleDeleteMode(Point clickedPoint) {
         // Check if a vertex is clicked
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.getPosition().distance(clickedPoint) <= 10) {
-                graph.removeVertex(vertex);
-                repaint();
-                return;
-            }
+        Vertex vertex = index.vertexAt(clickedPoint, hitRadius());
+        if (vertex != null) {
+            graph.removeVertex(vertex);
+            repaint();
+            return;
         }
 
         // Check if an edge is clicked
-        for (Edge edge : graph.getEdges()) {
-            if (isPointOnLine(clickedPoint, edge.getFrom().getPosition(), edge.getTo().getPosition())) {
-                graph.removeEdge(edge.getFrom(), edge.getTo());
-                repaint();
-                return;
-            }
+        Edge edge = index.edgeAt(clickedPoint, edgeTolerance());
+        if (edge != null) {
+            graph.removeEdge(edge.getFrom(), edge.getTo());
+            repaint();
         }
     }
 
     private void handleWeightMode(Point clickedPoint) {
-        for (Edge edge : graph.getEdges()) {
-            if (isPointOnLine(clickedPoint, edge.getFrom().getPosition(), edge.getTo().getPosition())) {
-                Integer newWeight = promptForWeight();
-                graph.setWeight(edge, newWeight);
-                repaint();
-                return;
-            }
+        Edge edge = index.edgeAt(clickedPoint, edgeTolerance());
+        if (edge != null) {
+            Integer newWeight = promptForWeight();
+            graph.setWeight(edge, newWeight);
+            repaint();
         }
     }
 
+    // A vertex radius, or a few pixels when zoomed out far enough that vertices are drawn smaller
+    private int hitRadius() {
+        return (int) Math.max(10, Math.ceil(4 / scale));
+    }
+
+    // Distance from an edge that still counts as on it: a few pixels, but never less than a few world units
+    private double edgeTolerance() {
+        return Math.max(4, 4 / scale);
+    }
+
     private Integer promptForWeight() {
         Integer weight = null;
-        while (weight == null || weight <= 0 || weight > 99) {
-            String input = JOptionPane.showInputDialog(this, "Enter weight (must be in range [1, 99]):");
+        while (weight == null || weight <= 0 || weight > Graph.MAX_WEIGHT) {
+            String input = JOptionPane.showInputDialog(this, "Enter weight (must be in range [1, " + Graph.MAX_WEIGHT + "]):");
             try {
                 weight = Integer.parseInt(input);
             } catch (NumberFormatException e) {
@@ -120,17 +190,10 @@ public class GraphCanvas extends JPanel {
         return weight;
     }
 
-    private boolean isPointOnLine(Point p, Point start, Point end) {
-        double distance = start.distance(end);
-        double distanceToStart = p.distance(start);
-        double distanceToEnd = p.distance(end);
-        return Math.abs(distance - (distanceToStart + distanceToEnd)) < 1.0;
-    }
-
     private void setupUI() {
         JFrame frame = new JFrame("GraphCanvas v1.0.0");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setResizable(false);
+        frame.setResizable(true);
         frame.setSize(1000, 600);
         frame.setLocationRelativeTo(null);
         frame.setLayout(new BorderLayout());
@@ -186,6 +249,9 @@ public class GraphCanvas extends JPanel {
         isLocked = !isLocked;
         console.setLocked(isLocked);
         if (isLocked) {
+            // Deleted vertices leave gaps in the ids until the graph is compacted
+            graph.compact();
+            repaint();
             lockButton.setText("Unlock");
             mode = "";
             console.appendOutput("Unlock to use Canvas");
@@ -231,38 +297,372 @@ public class GraphCanvas extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        // Draw edges first
+        if (isLayerStale()) {
+            renderLayer();
+        }
+        g.drawImage(layer, 0, 0, null);
+
+        // The selection changes between edits, so it is drawn over the cached layer
+        if (selectedVertex != null && graph.getVertex(selectedVertex.getId()) == selectedVertex) {
+            Point center = toScreen(selectedVertex.getPosition());
+            int radius = (int) Math.max(3, Math.round(10 * scale));
+            g.setColor(Color.RED);
+            g.fillOval(center.x - radius, center.y - radius, radius * 2, radius * 2);
+            if (layerDetail == Detail.FULL) {
+                g.setColor(Color.BLACK);
+                g.drawOval(center.x - radius, center.y - radius, radius * 2, radius * 2);
+                Graphics2D g2 = (Graphics2D) g.create();
+                g2.translate(offsetX, offsetY);
+                g2.scale(scale, scale);
+                drawVertexLabel(g2, selectedVertex);
+                g2.dispose();
+            }
+        }
+
+        // Draw graph attributes
         g.setColor(Color.BLACK);
-        for (Edge edge : graph.getEdges()) {
+        g.drawString("Directed: " + graph.isDirected + ", Weighted: " + graph.isWeighted, 10, 20);
+        g.drawString("V: " + graph.getNumVertex() + ", E: " + (graph.isDirected ? graph.getNumEdge() : graph.getNumEdge() / 2), 10, 40);
+        if (scale != 1) {
+            g.drawString(String.format("Zoom: %.0f%%", scale * 100), 10, 60);
+        }
+    }
+
+    // The graph layer is redrawn only after an edit, a zoom, a pan or a resize
+    private boolean isLayerStale() {
+        return layer == null || layer.getWidth() != getWidth() || layer.getHeight() != getHeight()
+                || layerChanges != index.getChanges() || layerScale != scale
+                || layerOffsetX != offsetX || layerOffsetY != offsetY;
+    }
+
+    // Picks the level of detail from how many vertices are in view
+    private void renderLayer() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = layer.createGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, width, height);
+        g.setFont(getFont());
+
+        // Visible world area, grown by a vertex radius so circles cut by the border are still drawn
+        Point topLeft = toWorld(new Point(0, 0));
+        Point bottomRight = toWorld(new Point(width, height));
+        Rectangle view = new Rectangle(topLeft.x - 12, topLeft.y - 12,
+                bottomRight.x - topLeft.x + 24, bottomRight.y - topLeft.y + 24);
+        int visible = index.countVertices(view);
+        if (visible <= FULL_DETAIL_LIMIT && scale >= FULL_DETAIL_SCALE) {
+            layerDetail = Detail.FULL;
+            renderFull(g, view);
+        } else if (visible <= LINES_LIMIT) {
+            layerDetail = Detail.LINES;
+            renderLines(g, view);
+        } else {
+            layerDetail = Detail.DENSITY;
+            renderDensity(view, width, height);
+        }
+        g.dispose();
+
+        // An edit makes the labels stale too, so it drops the colouring
+        if (components != null && componentChanges != index.getChanges()) {
+            components = null;
+        } else if (components != null) {
+            drawComponents(view);
+        }
+
+        // An edit makes the trace's ids meaningless, so it ends the animation
+        layerEvents = 0;
+        if (animation != null && animationChanges != index.getChanges()) {
+            animation = null;
+            animationTimer.stop();
+        } else if (animation != null) {
+            drawAnimation(0, animation.getCursor());
+            layerEvents = animation.getCursor();
+        }
+
+        layerChanges = index.getChanges();
+        layerScale = scale;
+        layerOffsetX = offsetX;
+        layerOffsetY = offsetY;
+    }
+
+    // Circles, ids, arrows and weights, drawn in world coordinates under the view transform
+    private void renderFull(Graphics2D g, Rectangle view) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.translate(offsetX, offsetY);
+        g.scale(scale, scale);
+        Font labelFont = g.getFont();
+        Font weightFont = labelFont.deriveFont(14f);
+
+        // Draw edges first
+        index.forEachEdge(view, edge -> {
+            g.setColor(Color.BLACK);
             drawEdge(g, edge);
             if (graph.isWeighted && edge.getWeight() != null) {
                 g.setColor(Color.RED);
-                g.setFont(g.getFont().deriveFont(14f)); // Increase font size
+                g.setFont(weightFont);
                 Point midPoint = new Point((edge.getFrom().getPosition().x + edge.getTo().getPosition().x) / 2,
                         (edge.getFrom().getPosition().y + edge.getTo().getPosition().y) / 2);
                 g.drawString(edge.getWeight().toString(), midPoint.x, midPoint.y);
-                g.setFont(g.getFont().deriveFont(12f)); // Reset font size
-                g.setColor(Color.BLACK);
+                g.setFont(labelFont);
             }
-        }
+        });
 
         // Draw vertices on top of edges
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.equals(selectedVertex)) {
-                g.setColor(Color.RED);
-            } else {
-                g.setColor(Color.WHITE);
-            }
+        index.forEachVertex(view, vertex -> {
+            g.setColor(Color.WHITE);
             g.fillOval(vertex.getPosition().x - 10, vertex.getPosition().y - 10, 20, 20);
             g.setColor(Color.BLACK);
             g.drawOval(vertex.getPosition().x - 10, vertex.getPosition().y - 10, 20, 20);
-            g.drawString(String.valueOf(vertex.getId()), vertex.getPosition().x - (vertex.getId() > 9 ? 6 : 3), vertex.getPosition().y + 4);
-        }
+            drawVertexLabel(g, vertex);
+        });
+    }
 
-        // Draw graph attributes
+    private void drawVertexLabel(Graphics g, Vertex vertex) {
+        g.drawString(String.valueOf(vertex.getId()), vertex.getPosition().x - (vertex.getId() > 9 ? 6 : 3), vertex.getPosition().y + 4);
+    }
+
+    // One-pixel lines and small squares in screen coordinates, with no labels or arrowheads
+    private void renderLines(Graphics2D g, Rectangle view) {
+        g.setColor(Color.GRAY);
+        index.forEachEdge(view, edge -> {
+            Point from = toScreen(edge.getFrom().getPosition());
+            Point to = toScreen(edge.getTo().getPosition());
+            g.drawLine(from.x, from.y, to.x, to.y);
+        });
         g.setColor(Color.BLACK);
-        g.drawString("Directed: " + graph.isDirected + ", Weighted: " + graph.isWeighted, 10, 20);
-        g.drawString("V: " + graph.getNumVertex() + ", E: " + (graph.isDirected ? graph.getNumEdge() : graph.getNumEdge() / 2), 10, 40);
+        int size = (int) Math.max(2, Math.min(6, Math.round(10 * scale)));
+        index.forEachVertex(view, vertex -> {
+            Point center = toScreen(vertex.getPosition());
+            g.fillRect(center.x - size / 2, center.y - size / 2, size, size);
+        });
+    }
+
+    // Too many vertices to draw one by one: each pixel is shaded by how many vertices fall in it. Once a grid
+    // cell is no bigger than a couple of pixels, whole cells are counted, so the cost follows the cells in view
+    private void renderDensity(Rectangle view, int width, int height) {
+        int[] counts = new int[width * height];
+        int[] max = new int[1];
+        if (SpatialIndex.getCellSize() * scale <= 2) {
+            index.forEachCellCount(view, (x, y, vertices) -> {
+                int px = (int) Math.round(x * scale + offsetX);
+                int py = (int) Math.round(y * scale + offsetY);
+                if (px >= 0 && px < width && py >= 0 && py < height) {
+                    max[0] = Math.max(max[0], counts[py * width + px] += vertices);
+                }
+            });
+        } else {
+            index.forEachVertex(view, vertex -> {
+                Point p = toScreen(vertex.getPosition());
+                if (p.x >= 0 && p.x < width && p.y >= 0 && p.y < height) {
+                    max[0] = Math.max(max[0], ++counts[p.y * width + p.x]);
+                }
+            });
+        }
+        int background = getBackground().getRGB() & 0xffffff;
+        int[] pixels = new int[width * height];
+        double top = Math.log1p(max[0]);
+        for (int i = 0; i < pixels.length; i++) {
+            if (counts[i] == 0) {
+                pixels[i] = background;
+            } else {
+                // Logarithmic, so sparse pixels stay visible next to the densest ones
+                int shade = (int) (160 * (1 - Math.log1p(counts[i]) / top));
+                pixels[i] = (shade << 16) | (shade << 8) | shade;
+            }
+        }
+        layer.setRGB(0, 0, width, height, pixels, 0, width);
+    }
+
+    // Colours every vertex by its label, which must be for the current graph, until the next edit
+    public void showComponents(int[] labels) {
+        stopAnimation();
+        components = labels;
+        componentChanges = index.getChanges();
+        layerChanges = -1;
+        repaint();
+    }
+
+    public void clearComponents() {
+        if (components != null) {
+            components = null;
+            layerChanges = -1;
+            repaint();
+        }
+    }
+
+    // Vertices in view at the layer's level of detail; in the density view one pixel each, coloured by the
+    // last vertex drawn there
+    private void drawComponents(Rectangle view) {
+        Graphics2D g = layer.createGraphics();
+        g.setFont(getFont());
+        if (layerDetail == Detail.FULL) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        int radius = layerDetail == Detail.FULL ? (int) Math.round(10 * scale)
+                : layerDetail == Detail.LINES ? (int) Math.max(1, Math.min(3, Math.round(5 * scale))) : 0;
+        index.forEachVertex(view, vertex -> {
+            int id = vertex.getId();
+            if (id >= components.length || components[id] < 0) return;
+            Point center = toScreen(vertex.getPosition());
+            g.setColor(componentColor(components[id]));
+            if (layerDetail == Detail.FULL) {
+                g.fillOval(center.x - radius, center.y - radius, radius * 2, radius * 2);
+                g.setColor(Color.BLACK);
+                g.drawOval(center.x - radius, center.y - radius, radius * 2, radius * 2);
+                Graphics2D world = (Graphics2D) g.create();
+                world.translate(offsetX, offsetY);
+                world.scale(scale, scale);
+                drawVertexLabel(world, vertex);
+                world.dispose();
+            } else {
+                g.fillRect(center.x - radius, center.y - radius, radius * 2 + 1, radius * 2 + 1);
+            }
+        });
+        g.dispose();
+    }
+
+    // Hues a golden-ratio turn apart, so labels next to each other get far apart colours
+    private static Color componentColor(int label) {
+        return Color.getHSBColor((float) ((label * 0.6180339887) % 1), 0.65f, 0.95f);
+    }
+
+    // Shows animation over the current graph, which it must have been recorded from, until the next edit
+    public void playAnimation(TraceAnimation animation) {
+        components = null;
+        this.animation = animation;
+        animationChanges = index.getChanges();
+        layerChanges = -1;
+        animationTimer.start();
+        repaint();
+    }
+
+    public void stopAnimation() {
+        if (animation != null) {
+            animation = null;
+            animationTimer.stop();
+            layerChanges = -1;
+            repaint();
+        }
+    }
+
+    // Draws only the events played since the last tick onto the layer, and repaints only the area they cover
+    private void stepAnimation() {
+        if (animation == null) return;
+        animation.advanceAnimation();
+        if (animation.isFinished()) {
+            animationTimer.stop();
+        }
+        if (isLayerStale()) {
+            repaint();
+            return;
+        }
+        Rectangle dirty = drawAnimation(layerEvents, animation.getCursor());
+        layerEvents = animation.getCursor();
+        if (dirty != null) {
+            repaint(dirty);
+        }
+    }
+
+    // Reached vertices and the edges that reached them in one colour, settled ones and their tree edges in
+    // another, drawn over the layer at its level of detail; returns the screen area touched, or null
+    private Rectangle drawAnimation(int from, int to) {
+        AlgorithmTrace trace = animation.getTrace();
+        Graphics2D g = layer.createGraphics();
+        g.setFont(getFont());
+        if (layerDetail == Detail.FULL) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        Stroke thin = new BasicStroke((float) Math.max(1, 2 * scale));
+        Stroke thick = new BasicStroke((float) Math.max(2, 4 * scale));
+        int radius = layerDetail == Detail.FULL ? (int) Math.round(10 * scale)
+                : (int) Math.max(1, Math.min(3, Math.round(5 * scale)));
+        Rectangle dirty = null;
+        for (int event = from; event < to; event++) {
+            boolean settled = trace.getType(event) == AlgorithmTrace.SETTLE;
+            Vertex target = graph.getVertex(trace.getTo(event));
+            Vertex source = trace.getFrom(event) < 0 ? null : graph.getVertex(trace.getFrom(event));
+            if (target == null) continue;
+            Point end = toScreen(target.getPosition());
+            Rectangle area = new Rectangle(end.x - radius - 1, end.y - radius - 1, 2 * radius + 3, 2 * radius + 3);
+
+            if (source != null && layerDetail != Detail.DENSITY) {
+                Point start = toScreen(source.getPosition());
+                // From rim to rim, so the vertices already drawn stay whole
+                double length = Math.max(1, start.distance(end));
+                double dx = (end.x - start.x) / length * radius;
+                double dy = (end.y - start.y) / length * radius;
+                g.setColor(settled ? TREE_COLOR : REACHED_COLOR);
+                g.setStroke(settled ? thick : thin);
+                g.drawLine((int) Math.round(start.x + dx), (int) Math.round(start.y + dy),
+                        (int) Math.round(end.x - dx), (int) Math.round(end.y - dy));
+                area.add(new Rectangle(start.x - 3, start.y - 3, 7, 7));
+            }
+
+            g.setColor(settled ? SETTLED_COLOR : REACHED_COLOR);
+            if (layerDetail == Detail.FULL) {
+                g.fillOval(end.x - radius, end.y - radius, radius * 2, radius * 2);
+                g.setStroke(new BasicStroke(1));
+                g.setColor(Color.BLACK);
+                g.drawOval(end.x - radius, end.y - radius, radius * 2, radius * 2);
+                Graphics2D world = (Graphics2D) g.create();
+                world.translate(offsetX, offsetY);
+                world.scale(scale, scale);
+                drawVertexLabel(world, target);
+                world.dispose();
+            } else {
+                g.fillRect(end.x - radius, end.y - radius, radius * 2 + 1, radius * 2 + 1);
+            }
+            dirty = dirty == null ? area : dirty.union(area);
+        }
+        g.dispose();
+        return dirty;
+    }
+
+    private Point toScreen(Point world) {
+        return new Point((int) Math.round(world.x * scale + offsetX), (int) Math.round(world.y * scale + offsetY));
+    }
+
+    private Point toWorld(Point screen) {
+        return new Point((int) Math.floor((screen.x - offsetX) / scale), (int) Math.floor((screen.y - offsetY) / scale));
+    }
+
+    // Zooms by factor, keeping the world point under the cursor in place
+    private void zoom(Point anchor, double factor) {
+        double next = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        offsetX = anchor.x - (anchor.x - offsetX) * next / scale;
+        offsetY = anchor.y - (anchor.y - offsetY) * next / scale;
+        scale = next;
+        repaint();
+    }
+
+    // Shows the whole graph, at full size when it already fits
+    public void fitView() {
+        List<Vertex> vertices = graph.getVertices();
+        scale = 1;
+        offsetX = 0;
+        offsetY = 0;
+        if (!vertices.isEmpty() && getWidth() > 0 && getHeight() > 0) {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (Vertex vertex : vertices) {
+                Point position = vertex.getPosition();
+                minX = Math.min(minX, position.x);
+                minY = Math.min(minY, position.y);
+                maxX = Math.max(maxX, position.x);
+                maxY = Math.max(maxY, position.y);
+            }
+            if (minX < 0 || minY < 0 || maxX > getWidth() - 20 || maxY > getHeight() - 20) {
+                // A margin of one vertex radius and the attribute lines at the top
+                scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, Math.min(
+                        (getWidth() - 40.0) / Math.max(1, maxX - minX), (getHeight() - 80.0) / Math.max(1, maxY - minY))));
+                offsetX = 20 - minX * scale;
+                offsetY = 60 - minY * scale;
+            }
+        }
+        repaint();
     }
 
     private void drawEdge(Graphics g, Edge edge) {
@@ -312,17 +712,35 @@ public class GraphCanvas extends JPanel {
     public void clearVertices() {
         if (isLocked) return;
         promptGraphAttributes();
+        stopAnimation();
+        index.close();
         graph = new Graph(isDirected, isWeighted, new ArrayList<>());
+        index = new SpatialIndex(graph);
+        console.graphReplaced();
         selectedVertex = null;
         weightButton.setEnabled(isWeighted);
         weightButton.setBackground(isWeighted ? null : Color.GRAY);
-        repaint();
+        fitView();
     }
 
     public Graph getGraph() {
         return graph;
     }
 
+    // Swaps in a loaded graph, taking its directed/weighted attributes with it
+    public void setGraph(Graph graph) {
+        stopAnimation();
+        index.close();
+        this.graph = graph;
+        index = new SpatialIndex(graph);
+        console.graphReplaced();
+        isDirected = graph.isDirected;
+        isWeighted = graph.isWeighted;
+        selectedVertex = null;
+        weightButton.setBackground(isWeighted ? null : Color.GRAY);
+        fitView();
+    }
+
     private void showGuide() {
         if (guideDialog == null) {
             guideDialog = new JDialog();
@@ -346,7 +764,12 @@ public class GraphCanvas extends JPanel {
         return GraphCanvasGuide.guide;
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Headless servers run queries without ever touching Swing
+        if (args.length > 0 && args[0].equals("--batch")) {
+            GraphBatch.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         new GraphCanvas();
     }
 }
\ No newline at end of file
@@ -26,7 +26,7 @@ public class GraphCanvasGuide {
                     "- Edge Mode: Click on a vertex to highlight it (red) and click on another vertex to create an edge between them.\n" +
                     "(For weighted graphs, edges are created with default weight 1).\n" +
                     "- Weight Mode (only for Weighted Graph): Click on an edge to edit its weight.\n" +
-                    "- Delete Mode: Click on a vertex/edge to delete it.\n" +
+                    "- Delete Mode: Click on a vertex/edge to delete it (vertex ids are renumbered when the canvas is Locked).\n" +
                     "\n" +
                     "Console:\n" +
                     "- \"randw {max}\" : Randomizes weights (1 to max inclusive) of all edges for weighted graphs.\n" +
@@ -34,8 +34,27 @@ public class GraphCanvasGuide {
                     "- \"bfs {from} {to}\" : Breadth First Search (display path and length).\n" +
                     "- \"dfs {from} {to}\" : Depth First Search (display path and length).\n" +
                     "- \"dijk {from} {to}\" : Dijkstra's Algorithm (display path and length).\n" +
+                    "- \"dobfs {from} {to}\" : Direction-Optimizing Breadth First Search for large dense graphs (display path and length).\n" +
+                    "- \"pbfs {from} {to}\" : Parallel Breadth First Search across all cores (display path and length).\n" +
                     "- \"fullbfs {start}\" : Full Breadth First Search (display all paths and lengths).\n" +
                     "- \"fulldfs {start}\" : Full Depth First Search (display all paths and lengths).\n" +
-                    "- \"fulldijk {start}\" : Full Dijkstra's Algorithm (display all paths and lengths).";
+                    "- \"fulldijk {start}\" : Full Dijkstra's Algorithm (display all paths and lengths).\n" +
+                    "- \"track {start}\" : Keep the Dijkstra tree from start repaired after every edit, used by dijk and fulldijk from that start.\n" +
+                    "- \"parsssp {start} [delta]\" : Parallel Delta-Stepping shortest paths for weighted graphs (display all paths and lengths).\n" +
+                    "- \"apsp {path}\" : All-pairs shortest paths in parallel, stored in a memory-mapped file (weights, or hops for unweighted graphs).\n" +
+                    "- \"apdist {from} {to}\" : Distance between two vertices, read from the last apsp matrix, which is computed again into the same file if the graph changed since.\n" +
+                    "- \"cache\" : Hits, misses and size of the cache of single-source results.\n" +
+                    "- \"save {path}\" : Save the graph to a binary graph file.\n" +
+                    "- \"load {path}\" : Replace the graph with one loaded from a binary graph file.\n" +
+                    "- \"import {path} {format} [directed|undirected]\" : Import a text edge list (edges, dimacs or metis), dropping loops and repeated pairs; weights must be at least 1 and are capped at 99.\n" +
+                    "- \"gen {er|rmat|geo} {vertices} {degree} [seed]\" : Replace the graph with a generated Erdos-Renyi, R-MAT power-law or random geometric graph of the given average degree (out-degree when directed).\n" +
+                    "- \"gen grid {rows} {columns} [seed]\" : Replace the graph with a generated grid graph.\n" +
+                    "- \"fit\" : Zoom and pan the canvas to show the whole graph (scroll to zoom, drag with the right button to pan).\n" +
+                    "- \"cancel\" : Stop the running console command and drop queued ones.\n" +
+                    "- \"animate {bfs|dfs|dijk} {start} [seconds]\" : Record the search and play it back on the canvas; \"animate stop\" clears it.\n" +
+                    "- \"stats [count|reset]\" : Show the counters, timings and allocation of the last searches, with histograms per algorithm; recorded only when started with -Dgraph.stats=true.\n" +
+                    "- \"layout [iterations]\" : Arrange the vertices with a force-directed layout, stopping early once it settles.\n" +
+                    "- \"cc [color|off]\" : List the connected components, ignoring edge direction, and the largest of them; \"color\" colours the vertices by component and \"off\" removes the colours.\n" +
+                    "- \"scc [color|off]\" : Same as cc for the strongly connected components of a directed graph.";
 
 }
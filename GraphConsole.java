@@ -2,24 +2,54 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 public class GraphConsole extends JPanel {
 
-    private JTextArea outputArea;
+    private ConsoleOutput output;
     private JTextField inputField;
     private GraphCanvas canvas;
+    private Distances distances;
+    private DynamicSssp tracked;
+    private final TaskRunner tasks = new TaskRunner();
+    private final JProgressBar progress;
+
+    // Mutations are applied on the event thread in slices of about this many edges, so the window
+    // keeps repainting and a cancel takes effect between slices
+    private static final int SLICE_EDGES = 20000;
+    private static final int COMPONENTS_SHOWN = 10;
+    private static final int LAYOUT_ITERATIONS = 100;
+    // The layout stops once vertices move less than this fraction of an edge length per iteration on average
+    private static final double LAYOUT_TOLERANCE = 0.01;
+    private static final long LAYOUT_FRAME_NANOS = 250_000_000L;
+
+    // What a task may read of the graph, copied on the event thread when the task starts;
+    // tracked is the repaired tree of the task's source if that source is tracked
+    private record Snapshot(Graph graph, CsrGraph csr, long version, boolean[] live, ShortestPathTree tracked) {
+        boolean hasVertex(int id) {
+            return id >= 0 && id < live.length && live[id];
+        }
+    }
+
+    // The last apsp matrix, with the file it was written to and the graph version it was computed from
+    private record Distances(DistanceMatrix matrix, Path path, Graph graph, long version) {
+        boolean isCurrent(Graph current) {
+            return graph == current && version == current.getVersion();
+        }
+    }
 
     public GraphConsole(GraphCanvas canvas) {
         this.canvas = canvas;
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 
-        outputArea = new JTextArea(20, 30);
-        outputArea.setEditable(false);
-        outputArea.setLineWrap(true);
-        outputArea.setWrapStyleWord(true);
-        JScrollPane scrollPane = new JScrollPane(outputArea);
-        scrollPane.setPreferredSize(new Dimension(300, 400));
+        output = new ConsoleOutput();
+        output.setPreferredSize(new Dimension(300, 400));
 
         inputField = new JTextField();
         inputField.setMaximumSize(new Dimension(Integer.MAX_VALUE, inputField.getPreferredSize().height));
@@ -31,8 +61,15 @@ public class GraphConsole extends JPanel {
             }
         });
 
-        add(scrollPane);
+        progress = new JProgressBar(0, 100);
+        progress.setStringPainted(true);
+        progress.setMaximumSize(new Dimension(Integer.MAX_VALUE, progress.getPreferredSize().height));
+        progress.setVisible(false);
+        new Timer(200, e -> updateProgress()).start();
+
+        add(output);
         add(inputField);
+        add(progress);
 
         // Set console to inactive upon instantiation
         setLocked(false);
@@ -51,22 +88,28 @@ public class GraphConsole extends JPanel {
                 case "bfs":
                 case "dfs":
                 case "dijk":
+                case "dobfs":
+                case "pbfs":
                     if (parts.length < 3) {
                         appendOutput("Invalid arguments");
                         return;
                     }
                     start = Integer.parseInt(parts[1]);
                     end = Integer.parseInt(parts[2]);
-                    if (start < 0 || start >= canvas.getGraph().getVertices().size() || end < 0 || end >= canvas.getGraph().getVertices().size()) {
+                    if (canvas.getGraph().getVertex(start) == null || canvas.getGraph().getVertex(end) == null) {
                         appendOutput("Invalid");
                         return;
                     }
                     if (algorithm.equals("bfs")) {
-                        runBFS(start, end);
+                        runCached("bfs", "Running BFS...", start, end);
                     } else if (algorithm.equals("dfs")) {
-                        runDFS(start, end);
+                        runCached("dfs", "Running DFS...", start, end);
                     } else if (algorithm.equals("dijk")) {
-                        runDijkstra(start, end);
+                        runCached("dijk", "Running Dijkstra's algorithm...", start, end);
+                    } else if (algorithm.equals("dobfs")) {
+                        runDirectionOptimizingBFS(start, end);
+                    } else if (algorithm.equals("pbfs")) {
+                        runParallelBFS(start, end);
                     }
                     break;
                 case "randw":
@@ -78,10 +121,7 @@ public class GraphConsole extends JPanel {
                     if (!canvas.getGraph().isWeighted) {
                         appendOutput("Weighted is false");
                     } else {
-                        canvas.getGraph().randomizeWeights(max);
-                        canvas.repaint();
-                        appendOutput("Weights randomized");
-                        appendOutput(canvas.graphToString());
+                        runRandomizeWeights(max);
                     }
                     break;
                 case "fullbfs":
@@ -92,17 +132,179 @@ public class GraphConsole extends JPanel {
                         return;
                     }
                     start = Integer.parseInt(parts[1]);
-                    if (start < 0 || start >= canvas.getGraph().getVertices().size()) {
+                    if (canvas.getGraph().getVertex(start) == null) {
                         appendOutput("Invalid start vertex");
                         return;
                     }
                     runFullAlgorithm(algorithm, start);
                     break;
+                case "parsssp":
+                    if (parts.length < 2) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    start = Integer.parseInt(parts[1]);
+                    if (canvas.getGraph().getVertex(start) == null) {
+                        appendOutput("Invalid start vertex");
+                        return;
+                    }
+                    if (!canvas.getGraph().isWeighted) {
+                        appendOutput("Weighted is false");
+                        return;
+                    }
+                    runDeltaStepping(start, parts.length > 2 ? Long.parseLong(parts[2]) : 0);
+                    break;
+                case "apsp":
+                    if (parts.length < 2) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    runAllPairs(Path.of(command.substring(algorithm.length()).trim()), null);
+                    break;
+                case "apdist":
+                    if (parts.length < 3) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    int from = Integer.parseInt(parts[1]);
+                    int to = Integer.parseInt(parts[2]);
+                    if (distances == null) {
+                        appendOutput("Run \"apsp {path}\" first");
+                        return;
+                    }
+                    if (!distances.isCurrent(canvas.getGraph())) {
+                        // The graph was edited since, so the matrix is computed again into the same file
+                        appendOutput("The graph changed since the last apsp");
+                        runAllPairs(distances.path(), () -> printDistance(from, to));
+                        return;
+                    }
+                    printDistance(from, to);
+                    break;
+                case "save":
+                case "load":
+                    if (parts.length < 2) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    Path file = Path.of(command.substring(algorithm.length()).trim());
+                    if (algorithm.equals("save")) {
+                        saveGraph(file);
+                    } else {
+                        loadGraph(file);
+                    }
+                    break;
+                case "import":
+                    if (parts.length < 3) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    // The path may hold spaces, so the format and the optional direction are read from the end
+                    int last = parts.length - 1;
+                    Boolean directed = null;
+                    if (parts[last].equals("directed") || parts[last].equals("undirected")) {
+                        directed = parts[last].equals("directed");
+                        last--;
+                    }
+                    if (last < 2) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    EdgeListImporter.Format format;
+                    try {
+                        format = EdgeListImporter.Format.of(parts[last]);
+                    } catch (IllegalArgumentException e) {
+                        appendOutput("Unknown format, use edges, dimacs or metis");
+                        return;
+                    }
+                    boolean isDirected = directed != null ? directed : format.isDirectedByDefault();
+                    importGraph(Path.of(String.join(" ", Arrays.copyOfRange(parts, 1, last))), format, isDirected);
+                    break;
+                case "gen":
+                    if (parts.length < 4) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    int first = Integer.parseInt(parts[2]);
+                    int second = Integer.parseInt(parts[3]);
+                    long seed = parts.length > 4 ? Long.parseLong(parts[4]) : new Random().nextInt(1 << 30);
+                    if (!List.of("er", "rmat", "grid", "geo").contains(parts[1])) {
+                        appendOutput("Unknown generator, use er, rmat, grid or geo");
+                        return;
+                    }
+                    generateGraph(parts[1], first, second, seed);
+                    break;
+                case "track":
+                    if (parts.length < 2) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    start = Integer.parseInt(parts[1]);
+                    if (canvas.getGraph().getVertex(start) == null) {
+                        appendOutput("Invalid start vertex");
+                        return;
+                    }
+                    if (!canvas.getGraph().isWeighted) {
+                        appendOutput("Weighted is false");
+                        return;
+                    }
+                    if (tracked != null) {
+                        tracked.close();
+                    }
+                    tracked = new DynamicSssp(canvas.getGraph(), start);
+                    appendOutput("Tracking shortest paths from Vertex " + start + "\n");
+                    break;
+                case "cache":
+                    ShortestPathCache cache = canvas.getGraph().getPathCache();
+                    appendOutput("Cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+                            + cache.size() + "/" + cache.getCapacity() + " entries\n");
+                    break;
+                case "fit":
+                    canvas.fitView();
+                    break;
+                case "stats":
+                    if (parts.length > 1 && parts[1].equals("reset")) {
+                        AlgorithmStats.reset();
+                        appendOutput("Statistics cleared");
+                    } else {
+                        printStats(parts.length > 1 ? Integer.parseInt(parts[1]) : 10);
+                    }
+                    break;
+                case "layout":
+                    runLayout(parts.length > 1 ? Integer.parseInt(parts[1]) : LAYOUT_ITERATIONS);
+                    break;
+                case "cc":
+                case "scc":
+                    if (parts.length > 1 && parts[1].equals("off")) {
+                        canvas.clearComponents();
+                        break;
+                    }
+                    if (parts.length > 1 && !parts[1].equals("color")) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    runComponents(algorithm, parts.length > 1);
+                    break;
+                case "animate":
+                    if (parts.length == 2 && parts[1].equals("stop")) {
+                        canvas.stopAnimation();
+                        break;
+                    }
+                    if (parts.length < 3 || !List.of("bfs", "dfs", "dijk").contains(parts[1])) {
+                        appendOutput("Invalid arguments");
+                        return;
+                    }
+                    start = Integer.parseInt(parts[2]);
+                    if (canvas.getGraph().getVertex(start) == null) {
+                        appendOutput("Invalid start vertex");
+                        return;
+                    }
+                    runAnimation(parts[1], start, parts.length > 3 ? Double.parseDouble(parts[3]) : 0);
+                    break;
                 case "connectall":
-                    canvas.getGraph().connectAllVertices();
-                    canvas.repaint();
-                    appendOutput("All vertices connected");
-                    appendOutput(canvas.graphToString());
+                    runConnectAll();
+                    break;
+                case "cancel":
+                    appendOutput(tasks.cancelAll() ? "Cancelling..." : "Nothing to cancel");
                     break;
                 default:
                     appendOutput("Unknown command");
@@ -113,85 +315,529 @@ public class GraphConsole extends JPanel {
     }
 
     private void runFullAlgorithm(String algorithm, int start) {
-        Graph graph = canvas.getGraph();
         appendOutput("Running \"" + algorithm + "\" from Vertex " + start + "...");
-        for (int end = 0; end < graph.getVertices().size(); end++) {
-            if (start == end) continue;
+
+        // A single search from start answers every target, and repeats come from the cache
+        runTask(algorithm, (control, out) -> {
+            Snapshot snapshot = snapshot(start);
+            String missing = missing(snapshot, start);
+            if (missing != null) return missing;
+            ShortestPathCache cache = snapshot.graph().getPathCache();
             switch (algorithm) {
-                case "fullbfs":
-                    runBFS(start, end);
-                    break;
-                case "fulldfs":
-                    runDFS(start, end);
-                    break;
-                case "fulldijk":
-                    runDijkstra(start, end);
-                    break;
+                case "fullbfs" -> formatTree(out, "Running BFS...",
+                        cache.get(snapshot.csr(), snapshot.version(), "bfs", start), snapshot.live(), control);
+                case "fulldfs" -> formatTree(out, "Running DFS...",
+                        cache.get(snapshot.csr(), snapshot.version(), "dfs", start), snapshot.live(), control);
+                default -> formatTree(out, "Running Dijkstra's algorithm...", dijkstraTree(snapshot, start),
+                        snapshot.live(), control);
+            }
+            return null;
+        });
+    }
+
+    private void runDeltaStepping(int start, long delta) {
+        runTask("parsssp", (control, out) -> {
+            Snapshot snapshot = snapshot(-1);
+            String missing = missing(snapshot, start);
+            if (missing != null) return missing;
+            if (!snapshot.graph().isWeighted) return "Weighted is false\n";
+            long chosen = delta > 0 ? delta : DeltaStepping.defaultDelta(snapshot.csr());
+            line(out, "Running delta-stepping (delta " + chosen + ") from Vertex " + start + "...");
+            formatTree(out, "Running delta-stepping...",
+                    DeltaStepping.run(snapshot.csr(), start, chosen, ForkJoinPool.commonPool()), snapshot.live(), control);
+            return null;
+        });
+    }
+
+    // The optional follow-up runs on the event thread once the matrix is written
+    private void runAllPairs(Path path, Runnable followUp) {
+        appendOutput("Running all-pairs shortest paths into " + path + "...");
+        tasks.submit("apsp", control -> {
+            Snapshot snapshot = TaskRunner.onEventThread(() -> {
+                if (distances != null) {
+                    distances.matrix().close();
+                    distances = null;
+                }
+                return takeSnapshot(-1);
+            });
+            return new Distances(AllPairsShortestPaths.compute(snapshot.csr(), path), path, snapshot.graph(),
+                    snapshot.version());
+        }, result -> {
+            distances = result;
+            int n = result.matrix().getNumVertex();
+            appendOutput("Wrote " + n + " x " + n + " distances\n");
+            if (followUp != null) {
+                followUp.run();
             }
+        }, error -> {
+            if (error instanceof IOException) {
+                appendOutput("Could not write " + path + ": " + error.getMessage() + "\n");
+            } else {
+                reportFailure("apsp", error);
+            }
+        });
+    }
+
+    private void printDistance(int from, int to) {
+        DistanceMatrix matrix = distances.matrix();
+        if (from < 0 || from >= matrix.getNumVertex() || to < 0 || to >= matrix.getNumVertex()) {
+            appendOutput("Invalid");
+            return;
+        }
+        long distance = matrix.dist(from, to);
+        appendOutput("Distance (from " + from + " to " + to + "): "
+                + (distance == ShortestPathTree.UNREACHABLE ? "Unreachable" : distance) + "\n");
+    }
+
+    // The search is recorded once on the task thread; the canvas then only steps through the recording
+    private void runAnimation(String algorithm, int start, double seconds) {
+        runTask("animate", (control, out) -> {
+            Snapshot snapshot = snapshot(-1);
+            String missing = missing(snapshot, start);
+            if (missing != null) return missing;
+            TraceAnimation animation = switch (algorithm) {
+                case "bfs" -> new AnimatedBFS(snapshot.csr(), start, seconds);
+                case "dfs" -> new AnimatedDFS(snapshot.csr(), start, seconds);
+                default -> new AnimatedDijkstra(snapshot.csr(), start, seconds);
+            };
+            return TaskRunner.onEventThread(() -> {
+                Graph graph = canvas.getGraph();
+                if (graph != snapshot.graph() || graph.getVersion() != snapshot.version()) {
+                    return "The graph changed while the search was recorded\n";
+                }
+                canvas.playAnimation(animation);
+                return "Animating " + animation.getTrace().size() + " events over "
+                        + String.format("%.1f", animation.getSeconds()) + " s\n";
+            });
+        });
+    }
+
+    // Sizes of the largest components and, on request, colours the canvas by component
+    private void runComponents(String algorithm, boolean color) {
+        runTask(algorithm, (control, out) -> {
+            Snapshot snapshot = snapshot(-1);
+            long begin = System.nanoTime();
+            int[] labels = algorithm.equals("cc") ? Components.connected(snapshot.csr(), snapshot.live())
+                    : Components.strong(snapshot.csr(), snapshot.live());
+            long millis = (System.nanoTime() - begin) / 1_000_000;
+            int[] sizes = Components.sizes(labels);
+            int[] lowest = new int[sizes.length];
+            for (int v = labels.length - 1; v >= 0; v--) {
+                if (labels[v] >= 0) {
+                    lowest[labels[v]] = v;
+                }
+            }
+            Integer[] bySize = new Integer[sizes.length];
+            int singletons = 0;
+            for (int c = 0; c < sizes.length; c++) {
+                bySize[c] = c;
+                if (sizes[c] == 1) singletons++;
+            }
+            Arrays.sort(bySize, (a, b) -> sizes[a] != sizes[b] ? Integer.compare(sizes[b], sizes[a]) : a - b);
+
+            line(out, sizes.length + (algorithm.equals("cc") ? " connected" : " strongly connected")
+                    + " components (" + singletons + " of a single vertex) in " + millis + " ms");
+            for (int k = 0; k < Math.min(COMPONENTS_SHOWN, bySize.length); k++) {
+                int c = bySize[k];
+                line(out, "Component " + c + ": " + sizes[c] + " vertices, lowest id " + lowest[c]);
+            }
+            if (color) {
+                line(out, TaskRunner.onEventThread(() -> {
+                    Graph graph = canvas.getGraph();
+                    if (graph != snapshot.graph() || graph.getVersion() != snapshot.version()) {
+                        return "The graph changed, so the canvas was not coloured";
+                    }
+                    canvas.showComponents(labels);
+                    return "Coloured by component";
+                }));
+            }
+            return null;
+        });
+    }
+
+    // Positions go back to the canvas between iterations, but no more often than applying them allows:
+    // refiling every vertex takes time on the event thread, so frames are spaced to a few times that
+    private void runLayout(int iterations) {
+        runTask("layout", (control, out) -> {
+            double[][] start = new double[2][];
+            Snapshot snapshot = TaskRunner.onEventThread(() -> {
+                Snapshot taken = takeSnapshot(-1);
+                start[0] = new double[taken.live().length];
+                start[1] = new double[taken.live().length];
+                for (Vertex vertex : taken.graph().getVertices()) {
+                    start[0][vertex.getId()] = vertex.getPosition().x;
+                    start[1][vertex.getId()] = vertex.getPosition().y;
+                }
+                return taken;
+            });
+            long begin = System.nanoTime();
+            long[] nextFrame = {begin + LAYOUT_FRAME_NANOS, 0};
+            BarnesHutLayout layout = new BarnesHutLayout(snapshot.csr(), snapshot.live(), start[0], start[1],
+                    ForkJoinPool.commonPool());
+            int ran = layout.run(iterations, LAYOUT_TOLERANCE, (x, y, iteration) -> {
+                if (System.nanoTime() >= nextFrame[0]) {
+                    long shown = System.nanoTime();
+                    // The view is fitted to the first frame, then left to the user until the end
+                    applyLayout(snapshot, x, y, nextFrame[1]++ == 0);
+                    long now = System.nanoTime();
+                    nextFrame[0] = now + Math.max(LAYOUT_FRAME_NANOS, 3 * (now - shown));
+                }
+            });
+            applyLayout(snapshot, start[0], start[1], true);
+            return "Layout of " + snapshot.graph().getNumVertex() + " vertices: " + ran + " iterations in "
+                    + (System.nanoTime() - begin) / 1_000_000 + " ms" + (ran < iterations ? ", converged\n" : "\n");
+        });
+    }
+
+    private void applyLayout(Snapshot snapshot, double[] x, double[] y, boolean fit) throws InterruptedException {
+        int[] px = new int[x.length];
+        int[] py = new int[y.length];
+        for (int v = 0; v < x.length; v++) {
+            px[v] = (int) Math.round(x[v]);
+            py[v] = (int) Math.round(y[v]);
+        }
+        TaskRunner.onEventThread(() -> {
+            Graph graph = canvas.getGraph();
+            if (graph != snapshot.graph() || graph.getVersion() != snapshot.version()) {
+                throw new CancellationException("The graph changed during the layout");
+            }
+            graph.setPositions(px, py);
+            if (fit) {
+                canvas.fitView();
+            } else {
+                canvas.repaint();
+            }
+            return null;
+        });
+    }
+
+    private void runRandomizeWeights(int max) {
+        runTask("randw", (control, out) -> {
+            Graph graph = TaskRunner.onEventThread(canvas::getGraph);
+            Random rand = new Random();
+            int bound = TaskRunner.onEventThread(graph::getIdBound);
+            int step = Math.max(1, (int) ((long) SLICE_EDGES * bound / Math.max(1, graph.getNumEdge())));
+            for (int from = 0; from < bound; from += step) {
+                control.checkpoint(from, bound);
+                int to = Math.min(bound, from + step);
+                int sliceFrom = from;
+                TaskRunner.onEventThread(() -> {
+                    graph.randomizeWeights(max, rand, sliceFrom, to);
+                    return null;
+                });
+            }
+            return TaskRunner.onEventThread(() -> {
+                canvas.repaint();
+                return "Weights randomized\n" + canvas.graphToString();
+            });
+        });
+    }
+
+    private void runConnectAll() {
+        runTask("connectall", (control, out) -> {
+            Graph graph = TaskRunner.onEventThread(canvas::getGraph);
+            int bound = TaskRunner.onEventThread(graph::getIdBound);
+            long total = (long) bound * (bound - 1) / 2;
+            long done = 0;
+            // Row i pairs vertex i with every higher id, so rows get shorter as i grows
+            for (int from = 0; from < bound; ) {
+                control.checkpoint(done, total);
+                int to = from;
+                long pairs = 0;
+                while (to < bound && pairs < SLICE_EDGES) {
+                    pairs += bound - 1 - to;
+                    to++;
+                }
+                int sliceFrom = from;
+                int sliceTo = to;
+                TaskRunner.onEventThread(() -> {
+                    graph.connectAllVertices(sliceFrom, sliceTo);
+                    canvas.repaint();
+                    return null;
+                });
+                done += pairs;
+                from = to;
+            }
+            return TaskRunner.onEventThread(() -> "All vertices connected\n" + canvas.graphToString());
+        });
+    }
+
+    // Writes its output as it goes and may return a last piece of text, or null
+    private interface Work {
+        String run(TaskControl control, ConsoleOutput.Writer out) throws Exception;
+    }
+
+    // Runs work on the task thread; what it wrote shows once it ends, even when it is cancelled part way
+    private void runTask(String name, Work work) {
+        if (tasks.getRunning() != null || tasks.getQueued() > 0) {
+            appendOutput("Queued " + name);
+        }
+        // Output long enough to spill is streamed to its file from the task thread
+        tasks.submit(name, control -> {
+            try (ConsoleOutput.Writer out = output.writer()) {
+                String text = work.run(control, out);
+                if (text != null) {
+                    out.write(text);
+                }
+            }
+            return null;
+        }, done -> {
+        }, error -> reportFailure(name, error));
+    }
+
+    private void reportFailure(String name, Throwable error) {
+        if (error instanceof CancellationException) {
+            appendOutput(name + " cancelled" + (error.getMessage() != null ? ": " + error.getMessage() : "") + "\n");
+        } else {
+            appendOutput(name + " failed: " + error + "\n");
+        }
+    }
+
+    // Ids are checked when a command is typed, but a load or gen queued ahead of its task may have replaced the
+    // graph since, so the task checks them again against its snapshot; null if they are all still there
+    private static String missing(Snapshot snapshot, int... ids) {
+        for (int id : ids) {
+            if (!snapshot.hasVertex(id)) {
+                return "Vertex " + id + " is not in the graph any more\n";
+            }
+        }
+        return null;
+    }
+
+    // Called from a task: waits for the event thread and copies what the task may read
+    private Snapshot snapshot(int source) throws InterruptedException {
+        return TaskRunner.onEventThread(() -> takeSnapshot(source));
+    }
+
+    private Snapshot takeSnapshot(int source) {
+        Graph graph = canvas.getGraph();
+        boolean[] live = new boolean[graph.getIdBound()];
+        for (Vertex vertex : graph.getVertices()) {
+            live[vertex.getId()] = true;
+        }
+        return new Snapshot(graph, graph.freeze(), graph.getVersion(), live,
+                isTracked(source) ? tracked.toTree() : null);
+    }
+
+    private void printStats(int count) {
+        if (!AlgorithmStats.ENABLED) {
+            appendOutput("Statistics are off; start with -Dgraph.stats=true to record them");
+            return;
+        }
+        List<AlgorithmStats.Query> queries = AlgorithmStats.getRecent(count);
+        try (ConsoleOutput.Writer out = output.writer()) {
+            line(out, "Last " + queries.size() + " of " + AlgorithmStats.getRecorded() + " searches:");
+            for (AlgorithmStats.Query query : queries) {
+                line(out, query.algorithm() + " from " + query.source() + ": " + query.visited() + " visited, "
+                        + query.scanned() + " scanned, " + query.pushes() + " pushes, " + query.pops() + " pops, "
+                        + query.decreases() + " decreases, " + query.stale() + " stale, "
+                        + String.format("%.3f ms, ", query.nanos() / 1e6) + query.allocated() + " bytes");
+            }
+            out.write(AlgorithmStats.summarize());
+        }
+    }
+
+    private void updateProgress() {
+        TaskControl running = tasks.getRunning();
+        if (running == null) {
+            progress.setVisible(false);
+            return;
+        }
+        double fraction = running.getProgress();
+        int queued = tasks.getQueued();
+        progress.setIndeterminate(fraction < 0);
+        progress.setValue((int) Math.round(Math.max(0, fraction) * 100));
+        progress.setString(tasks.getRunningName() + (fraction < 0 ? "" : " " + progress.getValue() + "%")
+                + (queued > 0 ? ", " + queued + " queued" : "") + " (cancel to stop)");
+        if (!progress.isVisible()) {
+            progress.setVisible(true);
+            revalidate();
+        }
+    }
+
+    // Only the copy out of the graph waits for the event thread; the file is written by the task
+    private void saveGraph(Path path) {
+        runTask("save", (control, out) -> {
+            GraphFile.Contents contents = TaskRunner.onEventThread(() -> GraphFile.contentsOf(canvas.getGraph()));
+            try {
+                GraphFile.write(path, contents);
+            } catch (IOException e) {
+                return "Could not write " + path + ": " + e.getMessage() + "\n";
+            }
+            return "Saved to " + path + "\n";
+        });
+    }
+
+    // The new graph is built entirely on the task thread and only swapped in on the event thread
+    private void loadGraph(Path path) {
+        runTask("load", (control, out) -> {
+            long begin = System.nanoTime();
+            Graph graph;
+            try {
+                graph = GraphFile.load(path);
+            } catch (IOException e) {
+                return "Could not read " + path + ": " + e.getMessage() + "\n";
+            }
+            return TaskRunner.onEventThread(() -> replaceGraph(graph, "Loaded " + path, begin));
+        });
+    }
+
+    private void importGraph(Path path, EdgeListImporter.Format format, boolean isDirected) {
+        appendOutput("Importing " + path + " as " + format.name().toLowerCase() + "...");
+        runTask("import", (control, out) -> {
+            long begin = System.nanoTime();
+            Graph graph;
+            try {
+                // Parsing is followed on the progress bar; the later phases are announced
+                graph = EdgeListImporter.load(path, format, isDirected, (phase, done, total) -> {
+                    if (phase.equals("Parsing")) {
+                        control.checkpoint(done, total);
+                    } else {
+                        output.append(phase + "... " + total + " edges\n");
+                    }
+                });
+            } catch (IOException e) {
+                return "Could not import " + path + ": " + e.getMessage() + "\n";
+            }
+            return TaskRunner.onEventThread(() -> replaceGraph(graph, "Imported " + path, begin));
+        });
+    }
+
+    private void generateGraph(String generator, int first, int second, long seed) {
+        appendOutput("Generating " + generator + " graph (seed " + seed + ")...");
+        runTask("gen", (control, out) -> {
+            long begin = System.nanoTime();
+            // The kind of graph is that of the one being replaced, which a task queued earlier may have loaded
+            Graph current = TaskRunner.onEventThread(canvas::getGraph);
+            boolean isDirected = current.isDirected;
+            boolean isWeighted = current.isWeighted;
+            // er, rmat and geo take a vertex count and an average degree, grid its rows and columns. The degree
+            // of a directed graph is its out-degree, and an undirected edge adds to the degree of both ends
+            long edges = (long) first * second / (isDirected ? 1 : 2);
+            Graph graph;
+            try {
+                graph = GraphFile.toGraph(switch (generator) {
+                    case "er" -> GraphGenerators.erdosRenyi(first, edges, isDirected, isWeighted, seed);
+                    case "rmat" -> GraphGenerators.rmat(first, edges, isDirected, isWeighted, seed);
+                    case "grid" -> GraphGenerators.grid(first, second, isDirected, isWeighted, seed);
+                    default -> GraphGenerators.geometric(first, second, isDirected, isWeighted, seed);
+                });
+            } catch (IllegalArgumentException e) {
+                return "Could not generate: " + e.getMessage() + "\n";
+            }
+            return TaskRunner.onEventThread(() -> replaceGraph(graph, "Generated " + generator + " graph (seed "
+                    + seed + ")", begin));
+        });
+    }
+
+    private String replaceGraph(Graph graph, String what, long begin) {
+        canvas.setGraph(graph);
+        return what + " (V: " + graph.getNumVertex() + ", E: "
+                + (graph.isDirected ? graph.getNumEdge() : graph.getNumEdge() / 2) + ") in "
+                + (System.nanoTime() - begin) / 1_000_000 + " ms\n";
+    }
+
+    // Called by the canvas whenever it swaps in another graph, by a load or by Reset. Results computed for the
+    // old graph no longer apply, and the tracked tree must stop listening to it
+    public void graphReplaced() {
+        if (tracked != null) {
+            tracked.close();
+            tracked = null;
+        }
+        if (distances != null) {
+            distances.matrix().close();
+            distances = null;
         }
     }
 
     public void setLocked(boolean isLocked) {
         if (isLocked) {
-            outputArea.setBackground(Color.WHITE);
-            outputArea.setText("");
+            output.setOutputBackground(Color.WHITE);
+            output.clear();
             inputField.setEnabled(true);
         } else {
-            outputArea.setBackground(Color.LIGHT_GRAY);
-            outputArea.setText("Canvas not Locked");
+            output.setOutputBackground(Color.LIGHT_GRAY);
+            output.clear();
+            output.append("Canvas not Locked");
             inputField.setEnabled(false);
         }
     }
 
-    private void runBFS(int start, int end) {
-        appendOutput("Running BFS... (from " + start + " to " + end + ")");
-        List<Integer> path = canvas.getGraph().bfs(start, end);
-        if (path == null) {
-            appendOutput("Unreachable\n");
-        } else {
-            appendOutput("Path: " + path);
-            appendOutput("Length: " + calculatePathWeight(path) + "\n");
-        }
+    private void runCached(String algorithm, String title, int start, int end) {
+        runTask(algorithm, (control, out) -> {
+            Snapshot snapshot = snapshot(start);
+            String missing = missing(snapshot, start, end);
+            if (missing != null) return missing;
+            line(out, title + " (from " + start + " to " + end + ")");
+            // The whole tree from start is cached, so later targets from the same source skip the search
+            ShortestPathTree tree = algorithm.equals("dijk") ? dijkstraTree(snapshot, start)
+                    : snapshot.graph().getPathCache().get(snapshot.csr(), snapshot.version(), algorithm, start);
+            formatPath(out, tree.pathTo(end), tree.getDistance(end));
+            return null;
+        });
     }
 
-    private void runDFS(int start, int end) {
-        appendOutput("Running DFS... (from " + start + " to " + end + ")");
-        List<Integer> path = canvas.getGraph().dfs(start, end);
-        if (path == null) {
-            appendOutput("Unreachable\n");
-        } else {
-            appendOutput("Path: " + path);
-            appendOutput("Length: " + calculatePathWeight(path) + "\n");
-        }
+    // A tracked source has its tree repaired after every edit instead of recomputed
+    private ShortestPathTree dijkstraTree(Snapshot snapshot, int start) {
+        return snapshot.tracked() != null ? snapshot.tracked()
+                : snapshot.graph().getPathCache().get(snapshot.csr(), snapshot.version(), "dijk", start);
+    }
+
+    private boolean isTracked(int start) {
+        return tracked != null && tracked.isAttached() && tracked.getSource() == start;
+    }
+
+    private void runDirectionOptimizingBFS(int start, int end) {
+        runTask("dobfs", (control, out) -> {
+            Snapshot snapshot = snapshot(-1);
+            String missing = missing(snapshot, start, end);
+            if (missing != null) return missing;
+            line(out, "Running direction-optimizing BFS... (from " + start + " to " + end + ")");
+            ShortestPathTree tree = DirectionOptimizingBfs.run(snapshot.csr(), start);
+            formatPath(out, tree.pathTo(end), tree.getDistance(end));
+            return null;
+        });
     }
 
-    private void runDijkstra(int start, int end) {
-        appendOutput("Running Dijkstra's algorithm... (from " + start + " to " + end + ")");
-        List<Integer> path = canvas.getGraph().dijkstra(start, end);
+    private void runParallelBFS(int start, int end) {
+        runTask("pbfs", (control, out) -> {
+            Snapshot snapshot = snapshot(-1);
+            String missing = missing(snapshot, start, end);
+            if (missing != null) return missing;
+            line(out, "Running parallel BFS... (from " + start + " to " + end + ")");
+            ShortestPathTree tree = ParallelBfs.run(snapshot.csr(), start);
+            formatPath(out, tree.pathTo(end), tree.getDistance(end));
+            return null;
+        });
+    }
+
+    private static void formatPath(ConsoleOutput.Writer out, List<Integer> path, long length) {
         if (path == null) {
-            appendOutput("Unreachable\n");
+            line(out, "Unreachable\n");
         } else {
-            appendOutput("Path: " + path);
-            appendOutput("Length: " + calculatePathWeight(path) + "\n");
+            line(out, "Path: " + path);
+            line(out, "Length: " + length + "\n");
         }
     }
 
-    private int calculatePathWeight(List<Integer> path) {
-        int totalWeight = 0;
-        for (int i = 0; i < path.size() - 1; i++) {
-            int from = path.get(i);
-            int to = path.get(i + 1);
-            for (Edge edge : canvas.getGraph().getVertices().get(from).getEdges()) {
-                if (edge.getTo().getId() == to) {
-                    totalWeight += edge.getWeight();
-                    break;
-                }
+    private static void formatTree(ConsoleOutput.Writer out, String title, ShortestPathTree tree, boolean[] live,
+                                   TaskControl control) {
+        int start = tree.getSource();
+        for (int end = 0; end < tree.getNumVertex(); end++) {
+            if ((end & 1023) == 0) {
+                control.checkpoint(end, tree.getNumVertex());
             }
+            if (start == end || end >= live.length || !live[end]) continue;
+            line(out, title + " (from " + start + " to " + end + ")");
+            formatPath(out, tree.pathTo(end), tree.getDistance(end));
         }
-        return totalWeight;
+    }
+
+    private static void line(ConsoleOutput.Writer out, String text) {
+        out.line(text);
     }
 
     public void appendOutput(String text) {
-        outputArea.append(text + "\n");
+        output.append(text + "\n");
     }
 }
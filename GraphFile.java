@@ -0,0 +1,237 @@
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Versioned binary graph file: a fixed header followed by primitive int sections
+//   header  MAGIC, VERSION, flags (1 = directed, 2 = weighted), vertices, edges, 3 reserved ints
+//   x[n], y[n]                  vertex positions
+//   from[m], to[m][, weight[m]] edges; an undirected pair is stored once with from < to
+// A file is checked against Graph's rules as it is read: no loops, no pair of vertices joined twice
+// in either direction, and positive weights
+// Everything is little-endian, the native order on the usual hardware, so a mapped section
+// is copied into its array in bulk
+public class GraphFile {
+
+    private static final int MAGIC = 0x47434746; // "GCGF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int DIRECTED = 1;
+    private static final int WEIGHTED = 2;
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int CHECK_INTERVAL = 1 << 16;
+
+    // Raw contents of a file, ids dense in [0, numVertex)
+    public record Contents(boolean isDirected, boolean isWeighted, int numVertex, int[] x, int[] y,
+                           int numEdge, int[] from, int[] to, int[] weights) {
+    }
+
+    public static void save(Graph graph, Path path) throws IOException {
+        write(path, contentsOf(graph));
+    }
+
+    // What save writes, copied out of the object model so the write itself can run away from the graph
+    public static Contents contentsOf(Graph graph) {
+        // Live vertices are written densely in id order, so a graph with tombstones saves compacted
+        int[] dense = new int[graph.getIdBound()];
+        List<Vertex> live = graph.getVertices();
+        int n = live.size();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int i = 0; i < n; i++) {
+            Vertex vertex = live.get(i);
+            dense[vertex.getId()] = i;
+            Point position = vertex.getPosition();
+            x[i] = position == null ? 0 : position.x;
+            y[i] = position == null ? 0 : position.y;
+        }
+
+        int m = graph.isDirected ? graph.getNumEdge() : graph.getNumEdge() / 2;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weights = graph.isWeighted ? new int[m] : null;
+        int e = 0;
+        for (Vertex vertex : live) {
+            for (Edge edge : vertex.getEdges()) {
+                int u = dense[edge.getFrom().getId()];
+                int v = dense[edge.getTo().getId()];
+                if (!graph.isDirected && u > v) continue;
+                from[e] = u;
+                to[e] = v;
+                if (weights != null) {
+                    weights[e] = edge.getWeight() == null ? 0 : edge.getWeight();
+                }
+                e++;
+            }
+        }
+        return new Contents(graph.isDirected, graph.isWeighted, n, x, y, e, from, to, weights);
+    }
+
+    public static void write(Path path, Contents contents) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int flags = (contents.isDirected() ? DIRECTED : 0) | (contents.isWeighted() ? WEIGHTED : 0);
+            header.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(contents.numVertex()).putInt(contents.numEdge());
+            header.position(HEADER_BYTES).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            writeInts(channel, chunk, contents.x(), contents.numVertex());
+            writeInts(channel, chunk, contents.y(), contents.numVertex());
+            writeInts(channel, chunk, contents.from(), contents.numEdge());
+            writeInts(channel, chunk, contents.to(), contents.numEdge());
+            if (contents.isWeighted()) {
+                writeInts(channel, chunk, contents.weights(), contents.numEdge());
+            }
+        }
+    }
+
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) break;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a graph file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported graph file version " + version + ": " + path);
+            }
+            int flags = header.getInt();
+            int n = header.getInt();
+            int m = header.getInt();
+            boolean isWeighted = (flags & WEIGHTED) != 0;
+            long expected = HEADER_BYTES + 4L * (2L * n + (isWeighted ? 3L : 2L) * m);
+            if (n < 0 || m < 0 || channel.size() < expected) {
+                throw new IOException("Truncated graph file: " + path);
+            }
+
+            long position = HEADER_BYTES;
+            int[] x = readInts(channel, position, n);
+            int[] y = readInts(channel, position += 4L * n, n);
+            int[] from = readInts(channel, position += 4L * n, m);
+            int[] to = readInts(channel, position += 4L * m, m);
+            int[] weights = isWeighted ? readInts(channel, position + 4L * m, m) : null;
+            TaskControl control = TaskControl.current();
+            for (int e = 0; e < m; e++) {
+                if ((e & (CHECK_INTERVAL - 1)) == 0) {
+                    control.checkpoint(e, m);
+                }
+                if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                    throw new IOException("Edge " + e + " points outside the " + n + " vertices: " + path);
+                }
+                if (from[e] == to[e]) {
+                    throw new IOException("Edge " + e + " is a loop on vertex " + from[e] + ": " + path);
+                }
+                if (weights != null && weights[e] < 1) {
+                    throw new IOException("Edge " + e + " has weight " + weights[e] + ", not positive: " + path);
+                }
+            }
+            // save never writes a vertex pair twice, in either direction, so on a good file the importer's filter
+            // keeps every edge where it is; anything it drops would become a second Edge between the same vertices
+            int kept = EdgeListImporter.removeLoopsAndDuplicates(ForkJoinPool.commonPool(), n, from, to, weights, m);
+            if (kept != m) {
+                throw new IOException("Vertex pairs joined more than once (" + (m - kept) + " extra edges): " + path);
+            }
+            return new Contents((flags & DIRECTED) != 0, isWeighted, n, x, y, m, from, to, weights);
+        }
+    }
+
+    public static Graph load(Path path) throws IOException {
+        return toGraph(read(path));
+    }
+
+    // Skips the object model entirely, for graphs only ever queried
+    public static CsrGraph loadCsr(Path path) throws IOException {
+        Contents contents = read(path);
+        return CsrGraph.fromEdges(contents.isDirected(), contents.isWeighted(), contents.numVertex(),
+                contents.from(), contents.to(), contents.weights(), contents.numEdge());
+    }
+
+    public static Graph toGraph(Contents contents) {
+        int n = contents.numVertex();
+        int m = contents.numEdge();
+        int[] from = contents.from();
+        int[] to = contents.to();
+        int[] weights = contents.weights();
+
+        // Degrees first, so every adjacency list is allocated once at its final size
+        int[] outDegree = new int[n];
+        int[] inDegree = new int[n];
+        for (int e = 0; e < m; e++) {
+            outDegree[from[e]]++;
+            inDegree[to[e]]++;
+            if (!contents.isDirected()) {
+                outDegree[to[e]]++;
+                inDegree[from[e]]++;
+            }
+        }
+        ArrayList<Vertex> vertices = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            Vertex vertex = new Vertex(v);
+            vertex.setPosition(new Point(contents.x()[v], contents.y()[v]));
+            vertex.getEdges().ensureCapacity(outDegree[v]);
+            vertex.getInEdges().ensureCapacity(inDegree[v]);
+            vertices.add(vertex);
+        }
+
+        int defaultWeight = contents.isWeighted() ? 1 : 0;
+        TaskControl control = TaskControl.current();
+        for (int e = 0; e < m; e++) {
+            if ((e & (CHECK_INTERVAL - 1)) == 0) {
+                control.checkpoint(e, m);
+            }
+            Vertex u = vertices.get(from[e]);
+            Vertex v = vertices.get(to[e]);
+            int weight = weights == null ? defaultWeight : weights[e];
+            u.addEdge(new Edge(u, v, weight));
+            if (!contents.isDirected()) {
+                v.addEdge(new Edge(v, u, weight));
+            }
+        }
+        return new Graph(contents.isDirected(), contents.isWeighted(), vertices);
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer chunk, int[] values, int count) throws IOException {
+        TaskControl control = TaskControl.current();
+        IntBuffer ints = chunk.clear().asIntBuffer();
+        for (int offset = 0; offset < count; ) {
+            control.checkpoint(offset, count);
+            int length = Math.min(ints.capacity(), count - offset);
+            ints.clear();
+            ints.put(values, offset, length);
+            chunk.clear().limit(length * 4);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            offset += length;
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, long position, int count) throws IOException {
+        int[] values = new int[count];
+        if (count > 0) {
+            // A section holds at most 2^31 - 1 ints, but one mapping stops at 2 GB
+            int perMapping = Integer.MAX_VALUE / 4;
+            for (int offset = 0; offset < count; offset += perMapping) {
+                int length = Math.min(perMapping, count - offset);
+                channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * offset, 4L * length)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, offset, length);
+            }
+        }
+        return values;
+    }
+}
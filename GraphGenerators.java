@@ -0,0 +1,289 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Synthetic graphs for testing at scale, built straight into GraphFile.Contents so they reach the object
+// model through one bulk GraphFile.toGraph instead of an addEdge per pair. The work is cut into fixed chunks,
+// each with its own generator split from the seed up front, so a seed gives the same graph on any pool
+public class GraphGenerators {
+
+    private static final int CHUNK = 1 << 16;
+    private static final int SPACING = 40;
+    private static final int MAX_EDGES = Integer.MAX_VALUE - 8;
+    // Quadrant probabilities of the usual R-MAT parameters; the last one is 0.05
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+
+    private interface ChunkBody {
+        void run(int chunk, SplittableRandom random);
+    }
+
+    // G(n, m): m uniformly random pairs, less the loops and repeats Graph does not allow
+    public static GraphFile.Contents erdosRenyi(int n, long m, boolean isDirected, boolean isWeighted, long seed) {
+        checkSize(n, m);
+        SplittableRandom root = new SplittableRandom(seed);
+        int[] from = new int[(int) m];
+        int[] to = new int[(int) m];
+        int[] weights = isWeighted ? new int[(int) m] : null;
+        forChunks(root, chunks(m), (chunk, random) -> {
+            int end = (int) Math.min(m, (long) (chunk + 1) * CHUNK);
+            for (int e = chunk * CHUNK; e < end; e++) {
+                from[e] = random.nextInt(n);
+                to[e] = random.nextInt(n);
+                if (weights != null) {
+                    weights[e] = random.nextInt(Graph.MAX_WEIGHT) + 1;
+                }
+            }
+        });
+        return scattered(root, n, isDirected, from, to, weights, (int) m);
+    }
+
+    // Recursive matrix: every edge descends the adjacency matrix by quadrants, giving the skewed,
+    // power-law degrees of real networks. Endpoints past n are drawn again
+    public static GraphFile.Contents rmat(int n, long m, boolean isDirected, boolean isWeighted, long seed) {
+        checkSize(n, m);
+        int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        SplittableRandom root = new SplittableRandom(seed);
+        int[] from = new int[(int) m];
+        int[] to = new int[(int) m];
+        int[] weights = isWeighted ? new int[(int) m] : null;
+        forChunks(root, chunks(m), (chunk, random) -> {
+            int end = (int) Math.min(m, (long) (chunk + 1) * CHUNK);
+            for (int e = chunk * CHUNK; e < end; e++) {
+                int u;
+                int v;
+                do {
+                    u = 0;
+                    v = 0;
+                    for (int bit = scale - 1; bit >= 0; bit--) {
+                        double r = random.nextDouble();
+                        if (r >= RMAT_A + RMAT_B + RMAT_C) {
+                            u |= 1 << bit;
+                            v |= 1 << bit;
+                        } else if (r >= RMAT_A + RMAT_B) {
+                            u |= 1 << bit;
+                        } else if (r >= RMAT_A) {
+                            v |= 1 << bit;
+                        }
+                    }
+                } while (u >= n || v >= n);
+                from[e] = u;
+                to[e] = v;
+                if (weights != null) {
+                    weights[e] = random.nextInt(Graph.MAX_WEIGHT) + 1;
+                }
+            }
+        });
+        return scattered(root, n, isDirected, from, to, weights, (int) m);
+    }
+
+    // rows x columns lattice, each vertex joined to its right and lower neighbours and drawn in place
+    public static GraphFile.Contents grid(int rows, int columns, boolean isDirected, boolean isWeighted, long seed) {
+        if (rows < 1 || columns < 1 || (long) rows * columns > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid size must be positive and below 2^31 vertices");
+        }
+        int n = rows * columns;
+        long total = (long) rows * (columns - 1) + (long) (rows - 1) * columns;
+        checkSize(n, total);
+        SplittableRandom root = new SplittableRandom(seed);
+        int m = (int) total;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weights = isWeighted ? new int[m] : null;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        // Row r holds its columns - 1 horizontal edges, then the columns vertical ones down to row r + 1
+        int rowsPerChunk = Math.max(1, CHUNK / columns);
+        forChunks(root, (rows + rowsPerChunk - 1) / rowsPerChunk, (chunk, random) -> {
+            int end = Math.min(rows, (chunk + 1) * rowsPerChunk);
+            for (int r = chunk * rowsPerChunk; r < end; r++) {
+                int e = (int) ((long) r * (2L * columns - 1));
+                for (int c = 0; c < columns; c++) {
+                    int v = r * columns + c;
+                    x[v] = SPACING + c * SPACING;
+                    y[v] = SPACING + r * SPACING;
+                    if (c + 1 < columns) {
+                        from[e] = v;
+                        to[e] = v + 1;
+                        if (weights != null) {
+                            weights[e] = random.nextInt(Graph.MAX_WEIGHT) + 1;
+                        }
+                        e++;
+                    }
+                }
+                for (int c = 0; r + 1 < rows && c < columns; c++, e++) {
+                    from[e] = r * columns + c;
+                    to[e] = (r + 1) * columns + c;
+                    if (weights != null) {
+                        weights[e] = random.nextInt(Graph.MAX_WEIGHT) + 1;
+                    }
+                }
+            }
+        });
+        return new GraphFile.Contents(isDirected, isWeighted, n, x, y, m, from, to, weights);
+    }
+
+    // Random points one per SPACING square on average, joined when closer than the radius that gives
+    // the requested average degree; weights are the rounded distances, capped at Graph.MAX_WEIGHT
+    public static GraphFile.Contents geometric(int n, double degree, boolean isDirected, boolean isWeighted,
+                                               long seed) {
+        checkSize(n, 0);
+        if (!(degree >= 0)) {
+            throw new IllegalArgumentException("Degree must not be negative");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        int side = (int) Math.ceil(Math.sqrt(n)) * SPACING;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        place(root, n, side, x, y);
+
+        // Bucket the points by cells one radius wide, so only the 3 x 3 cells around a point are searched
+        double radius = Math.max(1, SPACING * Math.sqrt(degree / Math.PI));
+        long radiusSquared = (long) Math.floor(radius * radius);
+        int cellSize = (int) Math.ceil(radius);
+        int cells = Math.max(1, (side + SPACING + cellSize - 1) / cellSize);
+        if ((long) cells * cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Degree too small for " + n + " vertices");
+        }
+        int[] cellStart = new int[cells * cells + 1];
+        for (int v = 0; v < n; v++) {
+            cellStart[cell(x[v], y[v], cellSize, cells) + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] byCell = new int[n];
+        int[] cursor = Arrays.copyOf(cellStart, cells * cells);
+        for (int v = 0; v < n; v++) {
+            byCell[cursor[cell(x[v], y[v], cellSize, cells)]++] = v;
+        }
+
+        // Every pair is found from its lower id only, so no pair comes up twice
+        List<Edges> found = new ArrayList<>();
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        for (int c = 0; c < chunks; c++) {
+            found.add(new Edges());
+        }
+        forChunks(root, chunks, (chunk, random) -> {
+            Edges edges = found.get(chunk);
+            int end = Math.min(n, (chunk + 1) * CHUNK);
+            for (int u = chunk * CHUNK; u < end; u++) {
+                int cx = x[u] / cellSize;
+                int cy = y[u] / cellSize;
+                for (int i = Math.max(0, cx - 1); i <= Math.min(cells - 1, cx + 1); i++) {
+                    for (int j = Math.max(0, cy - 1); j <= Math.min(cells - 1, cy + 1); j++) {
+                        int c = j * cells + i;
+                        for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                            int v = byCell[k];
+                            long dx = x[u] - x[v];
+                            long dy = y[u] - y[v];
+                            long squared = dx * dx + dy * dy;
+                            if (v > u && squared <= radiusSquared) {
+                                long weight = Math.min(Graph.MAX_WEIGHT, Math.round(Math.sqrt(squared)));
+                                edges.add(u, v, (int) Math.max(1, weight));
+                            }
+                        }
+                    }
+                }
+            }
+        });
+
+        long total = 0;
+        for (Edges edges : found) {
+            total += edges.size;
+        }
+        checkSize(n, total);
+        int m = (int) total;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weights = isWeighted ? new int[m] : null;
+        int e = 0;
+        for (Edges edges : found) {
+            System.arraycopy(edges.from, 0, from, e, edges.size);
+            System.arraycopy(edges.to, 0, to, e, edges.size);
+            if (weights != null) {
+                System.arraycopy(edges.weights, 0, weights, e, edges.size);
+            }
+            e += edges.size;
+        }
+        return new GraphFile.Contents(isDirected, isWeighted, n, x, y, m, from, to, weights);
+    }
+
+    private static class Edges {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int[] weights = new int[1024];
+        int size;
+
+        void add(int u, int v, int weight) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    // Random positions for the graphs without a geometry of their own, then Graph's rules on the edges
+    private static GraphFile.Contents scattered(SplittableRandom root, int n, boolean isDirected, int[] from,
+                                                int[] to, int[] weights, int m) {
+        int[] x = new int[n];
+        int[] y = new int[n];
+        place(root, n, (int) Math.ceil(Math.sqrt(n)) * SPACING, x, y);
+        int kept = EdgeListImporter.removeLoopsAndDuplicates(ForkJoinPool.commonPool(), n, from, to, weights, m);
+        return new GraphFile.Contents(isDirected, weights != null, n, x, y, kept, from, to, weights);
+    }
+
+    private static void place(SplittableRandom root, int n, int side, int[] x, int[] y) {
+        forChunks(root, (n + CHUNK - 1) / CHUNK, (chunk, random) -> {
+            int end = Math.min(n, (chunk + 1) * CHUNK);
+            for (int v = chunk * CHUNK; v < end; v++) {
+                x[v] = SPACING + random.nextInt(side);
+                y[v] = SPACING + random.nextInt(side);
+            }
+        });
+    }
+
+    private static int cell(int x, int y, int cellSize, int cells) {
+        return Math.min(cells - 1, y / cellSize) * cells + Math.min(cells - 1, x / cellSize);
+    }
+
+    // Generators are split off in chunk order before any work starts, which keeps the output deterministic.
+    // The caller's task is checked before every chunk
+    private static void forChunks(SplittableRandom root, int chunks, ChunkBody body) {
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+        TaskControl control = TaskControl.current();
+        AtomicInteger done = new AtomicInteger();
+        ParallelFor.run(ForkJoinPool.commonPool(), chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                control.checkpoint(done.get(), chunks);
+                body.run(c, randoms[c]);
+                done.incrementAndGet();
+            }
+        });
+    }
+
+    private static int chunks(long m) {
+        return (int) ((m + CHUNK - 1) / CHUNK);
+    }
+
+    private static void checkSize(int n, long m) {
+        if (n < 1) {
+            throw new IllegalArgumentException("A graph needs at least one vertex");
+        }
+        if (m < 0 || m > MAX_EDGES) {
+            throw new IllegalArgumentException("Edge count must be between 0 and " + MAX_EDGES);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import java.awt.Point;
+
+// Notified after each change to a Graph; every edge event describes exactly one directed edge,
+// so an undirected edit arrives as two events with the graph consistent after each
+public interface GraphListener {
+
+    default void vertexAdded(Vertex vertex) {
+    }
+
+    // Incident edges have already been reported through edgeRemoved
+    default void vertexRemoved(Vertex vertex) {
+    }
+
+    default void vertexMoved(Vertex vertex, Point oldPosition) {
+    }
+
+    // Many vertices moved at once, as by a layout, with no vertexMoved for each
+    default void positionsChanged() {
+    }
+
+    default void edgeAdded(Edge edge) {
+    }
+
+    default void edgeRemoved(Edge edge) {
+    }
+
+    default void weightChanged(Edge edge, Integer oldWeight) {
+    }
+
+    // Old id -> new id for every vertex, -1 for removed ones
+    default void compacted(int[] mapping) {
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+// Min-heap of vertex ids keyed by long priorities, with decrease-key through a position index
+public class IndexedDaryHeap {
+
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] pos;
+    private final long[] keys;
+    private int size;
+
+    public IndexedDaryHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public int capacity() {
+        return pos.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int v) {
+        return pos[v] >= 0;
+    }
+
+    public long getKey(int v) {
+        return keys[v];
+    }
+
+    public void insert(int v, long key) {
+        keys[v] = key;
+        heap[size] = v;
+        pos[v] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int v, long key) {
+        keys[v] = key;
+        siftUp(pos[v]);
+    }
+
+    public int poll() {
+        int top = heap[0];
+        pos[top] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            pos[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Only resets the positions still in the heap, so clearing after an early exit is O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        long key = keys[v];
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            int p = heap[parent];
+            if (keys[p] <= key) break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        long key = keys[v];
+        while (true) {
+            int first = i * ARITY + 1;
+            if (first >= size) break;
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            long bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                long k = keys[heap[c]];
+                if (k < bestKey) {
+                    best = c;
+                    bestKey = k;
+                }
+            }
+            if (bestKey >= key) break;
+            int child = heap[best];
+            heap[i] = child;
+            pos[child] = i;
+            i = best;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Level-synchronous BFS: each frontier is split across a fork-join pool and vertices are claimed with CAS
+public class ParallelBfs {
+
+    // How many claims a leaf task batches before publishing them to the next frontier
+    private static final int BUFFER = 256;
+
+    public static ShortestPathTree run(CsrGraph graph, int start) {
+        return run(graph, start, ForkJoinPool.commonPool());
+    }
+
+    public static ShortestPathTree run(CsrGraph graph, int start, ForkJoinPool pool) {
+        int n = graph.getNumVertex();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        AtomicIntegerArray hops = new AtomicIntegerArray(n);
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        ParallelFor.run(pool, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                hops.set(v, -1);
+                parent.set(v, Integer.MAX_VALUE);
+            }
+        });
+        long[] dist = new long[n];
+        Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+
+        hops.set(start, 0);
+        dist[start] = 0;
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+        frontier[0] = start;
+        int frontierSize = 1;
+        long reached = 1;
+        TaskControl control = TaskControl.current();
+
+        for (int level = 0; frontierSize > 0; level++) {
+            control.checkpoint(reached, n);
+            int[] current = frontier;
+            int[] discovered = next;
+            int nextLevel = level + 1;
+            AtomicInteger nextSize = new AtomicInteger();
+
+            ParallelFor.run(pool, frontierSize, (from, to) -> {
+                int[] buffer = new int[BUFFER];
+                int count = 0;
+                for (int k = from; k < to; k++) {
+                    int u = current[k];
+                    for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                        int v = targets[i];
+                        int h = hops.get(v);
+                        if (h == -1) {
+                            // A failed claim means another task put v on this same level
+                            if (hops.compareAndSet(v, -1, nextLevel)) {
+                                if (count == BUFFER) {
+                                    int base = nextSize.getAndAdd(count);
+                                    System.arraycopy(buffer, 0, discovered, base, count);
+                                    count = 0;
+                                }
+                                buffer[count++] = v;
+                            }
+                            h = nextLevel;
+                        }
+                        // Every claimer on the level offers itself, so the lowest id wins as in the sequential bfs
+                        if (h == nextLevel && u < parent.get(v)) {
+                            parent.accumulateAndGet(v, u, Math::min);
+                        }
+                    }
+                }
+                int base = nextSize.getAndAdd(count);
+                System.arraycopy(buffer, 0, discovered, base, count);
+            });
+
+            frontierSize = nextSize.get();
+            reached += frontierSize;
+            // Parents of the new level are final once the expansion joins
+            ParallelFor.run(pool, frontierSize, (from, to) -> {
+                for (int k = from; k < to; k++) {
+                    int v = discovered[k];
+                    int p = parent.get(v);
+                    dist[v] = dist[p] + graph.getWeight(p, v);
+                }
+            });
+            frontier = discovered;
+            next = current;
+        }
+
+        int[] treeParent = new int[n];
+        int[] treeHops = new int[n];
+        for (int v = 0; v < n; v++) {
+            treeHops[v] = hops.get(v);
+            treeParent[v] = treeHops[v] > 0 ? parent.get(v) : -1;
+        }
+        return new ShortestPathTree(start, treeParent, dist, treeHops);
+    }
+}
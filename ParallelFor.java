@@ -0,0 +1,47 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Splits [0, size) into fork-join tasks of at most GRAIN indices each
+public class ParallelFor {
+
+    static final int GRAIN = 512;
+
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private static class RangeTask extends RecursiveAction {
+
+        private final RangeBody body;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask(RangeBody body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(body, from, mid, grain), new RangeTask(body, mid, to, grain));
+            }
+        }
+    }
+
+    public static void run(ForkJoinPool pool, int size, RangeBody body) {
+        run(pool, size, GRAIN, body);
+    }
+
+    public static void run(ForkJoinPool pool, int size, int grain, RangeBody body) {
+        if (size > 0) {
+            pool.invoke(new RangeTask(body, 0, size, Math.max(1, grain)));
+        }
+    }
+}
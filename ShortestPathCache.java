@@ -0,0 +1,82 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU cache of single-source results keyed by (algorithm, source, graph version)
+public class ShortestPathCache {
+
+    private record Key(String algorithm, int source, long version) {
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, ShortestPathTree> entries;
+    private long version = -1;
+    private long hits;
+    private long misses;
+
+    public ShortestPathCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ShortestPathTree> eldest) {
+                return size() > ShortestPathCache.this.capacity;
+            }
+        };
+    }
+
+    public ShortestPathTree get(Graph graph, String algorithm, int source) {
+        return get(graph.freeze(), graph.getVersion(), algorithm, source);
+    }
+
+    // For callers off the event thread, with a snapshot and the graph version it was taken at. The search
+    // runs outside the lock, and its result is only kept if the graph has not changed in the meantime
+    public ShortestPathTree get(CsrGraph snapshot, long snapshotVersion, String algorithm, int source) {
+        Key key = new Key(algorithm, source, snapshotVersion);
+        synchronized (this) {
+            if (snapshotVersion > version) {
+                // Every entry belongs to an older version now and can never be hit again
+                entries.clear();
+                version = snapshotVersion;
+            }
+            ShortestPathTree tree = entries.get(key);
+            if (tree != null) {
+                hits++;
+                return tree;
+            }
+            misses++;
+        }
+        ShortestPathTree tree = switch (algorithm) {
+            case "bfs" -> snapshot.bfsTree(source);
+            case "dfs" -> snapshot.dfsTree(source);
+            case "dijk" -> snapshot.dijkstraTree(source);
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        };
+        synchronized (this) {
+            if (snapshotVersion == version) {
+                entries.put(key, tree);
+            }
+        }
+        return tree;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
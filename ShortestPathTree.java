@@ -0,0 +1,56 @@
+import java.util.*;
+
+// Result of one single-source search: every path from the source is read back in O(path)
+public class ShortestPathTree {
+
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final int source;
+    private final int[] parent;
+    private final long[] dist;
+    private final int[] hops;
+
+    public ShortestPathTree(int source, int[] parent, long[] dist, int[] hops) {
+        this.source = source;
+        this.parent = parent;
+        this.dist = dist;
+        this.hops = hops;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getNumVertex() {
+        return parent.length;
+    }
+
+    public boolean isReachable(int v) {
+        return hops[v] >= 0;
+    }
+
+    public int getParent(int v) {
+        return parent[v];
+    }
+
+    // Sum of the edge weights along the tree path, UNREACHABLE if there is none
+    public long getDistance(int v) {
+        return dist[v];
+    }
+
+    public int getHops(int v) {
+        return hops[v];
+    }
+
+    public List<Integer> pathTo(int v) {
+        if (!isReachable(v)) {
+            return null; // Unreachable
+        }
+        List<Integer> path = new ArrayList<>(hops[v] + 1);
+        for (int at = v; at != -1; at = parent[at]) {
+            path.add(at);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
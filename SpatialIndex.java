@@ -0,0 +1,367 @@
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Grids over the canvas for click hit-testing, kept current through the graph's events. A vertex sits in the
+// finest grid's cell of its position. An edge sits in every cell its segment passes through, on the finest
+// level where that is at most EDGE_CELLS cells. Each level's cells are four times wider than
+// the ones below, so even the long edges of a randomly placed graph take a bounded number of cells, and a query
+// looks at a few cells per level
+public class SpatialIndex implements GraphListener {
+
+    private static final int CELL = 64;
+    private static final int LEVEL_SHIFT = 2;
+    // The top level's cells are 2^30 wide, so any segment between int coordinates fits in a few of them
+    private static final int LEVELS = 13;
+    private static final int EDGE_CELLS = 64;
+
+    public interface CellCount {
+        void accept(int centerX, int centerY, int vertices);
+    }
+
+    private static class Cell {
+        final ArrayList<Vertex> vertices = new ArrayList<>(2);
+        final ArrayList<Edge> edges = new ArrayList<>(4);
+    }
+
+    private final Graph graph;
+    // Level 0 holds the vertices and the shortest edges
+    private final List<HashMap<Long, Cell>> levels = new ArrayList<>(LEVELS);
+    private final HashMap<Long, Cell> cells;
+    // Bumped by every change, so a cached rendering can tell it is stale
+    private long changes;
+
+    public SpatialIndex(Graph graph) {
+        this.graph = graph;
+        for (int level = 0; level < LEVELS; level++) {
+            levels.add(new HashMap<>());
+        }
+        cells = levels.get(0);
+        fill();
+        graph.addGraphListener(this);
+    }
+
+    private void fill() {
+        for (Vertex vertex : graph.getVertices()) {
+            vertexAdded(vertex);
+            for (Edge edge : vertex.getEdges()) {
+                edgeAdded(edge);
+            }
+        }
+    }
+
+    public void close() {
+        graph.removeGraphListener(this);
+    }
+
+    public long getChanges() {
+        return changes;
+    }
+
+    public int countVertices(Rectangle area) {
+        int[] count = new int[1];
+        forEachCell(area, 0, (cx, cy, cell) -> count[0] += cell.vertices.size());
+        return count[0];
+    }
+
+    // Vertices whose position lies in the area
+    public void forEachVertex(Rectangle area, Consumer<Vertex> action) {
+        forEachCell(area, 0, (cx, cy, cell) -> {
+            for (Vertex vertex : cell.vertices) {
+                if (area.contains(vertex.getPosition())) {
+                    action.accept(vertex);
+                }
+            }
+        });
+    }
+
+    // Vertex count of every occupied cell overlapping the area, for drawing at a scale where a cell is a pixel
+    public void forEachCellCount(Rectangle area, CellCount action) {
+        forEachCell(area, 0, (cx, cy, cell) -> {
+            if (!cell.vertices.isEmpty()) {
+                action.accept(cx * CELL + CELL / 2, cy * CELL + CELL / 2, cell.vertices.size());
+            }
+        });
+    }
+
+    public static int getCellSize() {
+        return CELL;
+    }
+
+    // Edges whose segment crosses the area, each once
+    public void forEachEdge(Rectangle area, Consumer<Edge> action) {
+        Set<Edge> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int level = 0; level < LEVELS; level++) {
+            forEachCell(area, level, (cx, cy, cell) -> {
+                for (Edge edge : cell.edges) {
+                    if (crosses(area, edge) && seen.add(edge)) {
+                        action.accept(edge);
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean crosses(Rectangle area, Edge edge) {
+        Point start = edge.getFrom().getPosition();
+        Point end = edge.getTo().getPosition();
+        return area.intersectsLine(start.x, start.y, end.x, end.y);
+    }
+
+    // Looks the area's cells up one by one, or walks the occupied cells when those are fewer
+    private interface CellAction {
+        void accept(int cx, int cy, Cell cell);
+    }
+
+    private void forEachCell(Rectangle area, int level, CellAction action) {
+        HashMap<Long, Cell> cells = levels.get(level);
+        if (cells.isEmpty()) return;
+        int minX = cellOf(area.x, level);
+        int maxX = cellOf(area.x + area.width, level);
+        int minY = cellOf(area.y, level);
+        int maxY = cellOf(area.y + area.height, level);
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int cx = (int) (entry.getKey() >> 32);
+                int cy = (int) (long) entry.getKey();
+                if (cx >= minX && cx <= maxX && cy >= minY && cy <= maxY) {
+                    action.accept(cx, cy, entry.getValue());
+                }
+            }
+            return;
+        }
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                Cell cell = cells.get(key(cx, cy));
+                if (cell != null) {
+                    action.accept(cx, cy, cell);
+                }
+            }
+        }
+    }
+
+    // Nearest vertex within radius of the point, lowest id on a tie
+    public Vertex vertexAt(Point point, int radius) {
+        Vertex best = null;
+        double bestDistance = radius;
+        for (int cx = cellOf(point.x - radius); cx <= cellOf(point.x + radius); cx++) {
+            for (int cy = cellOf(point.y - radius); cy <= cellOf(point.y + radius); cy++) {
+                Cell cell = cells.get(key(cx, cy));
+                if (cell == null) continue;
+                for (Vertex vertex : cell.vertices) {
+                    double distance = vertex.getPosition().distance(point);
+                    if (distance < bestDistance || distance == bestDistance
+                            && (best == null || vertex.getId() < best.getId())) {
+                        best = vertex;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Nearest edge whose segment passes within tolerance of the point, lowest ids on a tie. Edges are filed
+    // only where they pass, so the tolerance widens the search instead and can change with every call
+    public Edge edgeAt(Point point, double tolerance) {
+        int reach = (int) Math.ceil(tolerance);
+        Rectangle area = new Rectangle(point.x - reach, point.y - reach, 2 * reach, 2 * reach);
+        Edge[] best = new Edge[1];
+        double[] bestDistance = {tolerance};
+        for (int level = 0; level < LEVELS; level++) {
+            forEachCell(area, level, (cx, cy, cell) -> {
+                for (Edge edge : cell.edges) {
+                    double distance = distance(point, edge);
+                    if (isBetter(distance, edge, bestDistance[0], best[0])) {
+                        best[0] = edge;
+                        bestDistance[0] = distance;
+                    }
+                }
+            });
+        }
+        return best[0];
+    }
+
+    private static double distance(Point point, Edge edge) {
+        Point start = edge.getFrom().getPosition();
+        Point end = edge.getTo().getPosition();
+        return Line2D.ptSegDist(start.x, start.y, end.x, end.y, point.x, point.y);
+    }
+
+    private static boolean isBetter(double distance, Edge edge, double bestDistance, Edge best) {
+        if (distance > bestDistance) return false;
+        if (best == null || distance < bestDistance) return true;
+        int from = edge.getFrom().getId();
+        int bestFrom = best.getFrom().getId();
+        return from < bestFrom || from == bestFrom && edge.getTo().getId() < best.getTo().getId();
+    }
+
+    @Override
+    public void vertexAdded(Vertex vertex) {
+        changes++;
+        Point position = vertex.getPosition();
+        if (position != null) {
+            cells.computeIfAbsent(key(cellOf(position.x), cellOf(position.y)), k -> new Cell()).vertices.add(vertex);
+        }
+    }
+
+    @Override
+    public void vertexRemoved(Vertex vertex) {
+        changes++;
+        removeVertex(vertex, vertex.getPosition());
+    }
+
+    @Override
+    public void vertexMoved(Vertex vertex, Point oldPosition) {
+        removeVertex(vertex, oldPosition);
+        vertexAdded(vertex);
+        // Incident edges are moved with the geometry they were filed under
+        for (Edge edge : vertex.getEdges()) {
+            updateEdge(edge, oldPosition, edge.getTo().getPosition(), false);
+            edgeAdded(edge);
+        }
+        for (Edge edge : vertex.getInEdges()) {
+            updateEdge(edge, edge.getFrom().getPosition(), oldPosition, false);
+            edgeAdded(edge);
+        }
+    }
+
+    // Cheaper to file everything again than to move each vertex and its edges
+    @Override
+    public void positionsChanged() {
+        for (HashMap<Long, Cell> level : levels) {
+            level.clear();
+        }
+        fill();
+    }
+
+    @Override
+    public void weightChanged(Edge edge, Integer oldWeight) {
+        changes++;
+    }
+
+    @Override
+    public void compacted(int[] mapping) {
+        // Vertex labels show the new ids
+        changes++;
+    }
+
+    @Override
+    public void edgeAdded(Edge edge) {
+        changes++;
+        updateEdge(edge, edge.getFrom().getPosition(), edge.getTo().getPosition(), true);
+    }
+
+    @Override
+    public void edgeRemoved(Edge edge) {
+        changes++;
+        updateEdge(edge, edge.getFrom().getPosition(), edge.getTo().getPosition(), false);
+    }
+
+    private void removeVertex(Vertex vertex, Point position) {
+        if (position == null) return;
+        long key = key(cellOf(position.x), cellOf(position.y));
+        Cell cell = cells.get(key);
+        if (cell != null && removeIdentity(cell.vertices, vertex)) {
+            dropIfEmpty(cells, key, cell);
+        }
+    }
+
+    // Adds the edge to, or removes it from, the cells the segment between the two points passes through. The
+    // level depends only on those points, so an edge is removed from where it was added
+    private void updateEdge(Edge edge, Point start, Point end, boolean add) {
+        if (start == null || end == null) return;
+        int level = 0;
+        while (level < LEVELS - 1 && forEachCell(start, end, level, null) > EDGE_CELLS) {
+            level++;
+        }
+        HashMap<Long, Cell> cells = levels.get(level);
+        if (add) {
+            forEachCell(start, end, level, key -> cells.computeIfAbsent(key, k -> new Cell()).edges.add(edge));
+        } else {
+            forEachCell(start, end, level, key -> {
+                Cell cell = cells.get(key);
+                if (cell != null && removeIdentity(cell.edges, edge)) {
+                    dropIfEmpty(cells, key, cell);
+                }
+            });
+        }
+    }
+
+    // Visits the level's cells the segment passes through, a strip along its longer axis rather than its whole
+    // bounding box, and returns how many there are; with no visitor it only counts
+    private static int forEachCell(Point start, Point end, int level, LongConsumer visitor) {
+        int size = CELL << (LEVEL_SHIFT * level);
+        boolean alongX = Math.abs(end.x - start.x) >= Math.abs(end.y - start.y);
+        // Walk the major axis u one cell at a time; v is the other axis
+        double u0 = alongX ? start.x : start.y;
+        double v0 = alongX ? start.y : start.x;
+        double u1 = alongX ? end.x : end.y;
+        double v1 = alongX ? end.y : end.x;
+        if (u0 > u1) {
+            double swap = u0;
+            u0 = u1;
+            u1 = swap;
+            swap = v0;
+            v0 = v1;
+            v1 = swap;
+        }
+        double slope = u1 == u0 ? 0 : (v1 - v0) / (u1 - u0);
+        int count = 0;
+        for (int cu = cellOf((int) u0, level); cu <= cellOf((int) u1, level); cu++) {
+            // Segment points in this column, then their spread on v
+            double from = Math.max(u0, (double) cu * size);
+            double to = Math.min(u1, (double) (cu + 1) * size);
+            double va = v0 + slope * (from - u0);
+            double vb = v0 + slope * (to - u0);
+            int low = cellOf((int) Math.floor(Math.min(va, vb)), level);
+            int high = cellOf((int) Math.ceil(Math.max(va, vb)), level);
+            count += high - low + 1;
+            if (visitor != null) {
+                for (int cv = low; cv <= high; cv++) {
+                    visitor.accept(alongX ? key(cu, cv) : key(cv, cu));
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void dropIfEmpty(HashMap<Long, Cell> cells, long key, Cell cell) {
+        if (cell.vertices.isEmpty() && cell.edges.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    // Cells hold a handful of items, so a scan by identity is cheaper than equals and order is not kept
+    private static <T> boolean removeIdentity(ArrayList<T> items, T item) {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (items.get(i) == item) {
+                items.set(i, items.get(items.size() - 1));
+                items.remove(items.size() - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, CELL);
+    }
+
+    private static int cellOf(int coordinate, int level) {
+        return Math.floorDiv(coordinate, CELL << (LEVEL_SHIFT * level));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.concurrent.CancellationException;
+
+// Cancellation flag and progress of one background task. Long-running algorithms call checkpoint every few
+// thousand steps: it records how far they got and throws CancellationException once the task is cancelled.
+// Code that runs outside any task sees NONE, which is never cancelled and keeps no progress
+public class TaskControl {
+
+    public static final TaskControl NONE = new TaskControl();
+
+    private static final ThreadLocal<TaskControl> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+    private volatile boolean cancelled;
+    private volatile long done;
+    private volatile long total;
+
+    // The task running on this thread; work forked to other threads must capture it before it forks
+    public static TaskControl current() {
+        return CURRENT.get();
+    }
+
+    // Runs body with this control as the thread's current one
+    public void runAs(Runnable body) {
+        TaskControl previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            body.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void checkpoint(long done, long total) {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (this != NONE) {
+            this.done = done;
+            this.total = total;
+        }
+    }
+
+    // Fraction done, or -1 before the task has reported any
+    public double getProgress() {
+        long total = this.total;
+        return total <= 0 ? -1 : Math.min(1, (double) done / total);
+    }
+}
@@ -0,0 +1,107 @@
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs console work one task at a time on a background thread, so the event thread stays free.
+// A task reads the graph only through what it copies on the event thread with onEventThread,
+// which runs after everything queued before it has been applied, and its result or error is
+// handed back on the event thread
+public class TaskRunner {
+
+    public interface Task<T> {
+        T run(TaskControl control) throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "console-tasks");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger queued = new AtomicInteger();
+    // Bumped by cancelAll, so tasks submitted before it are skipped when their turn comes. A task checks it and
+    // publishes itself as running under the same lock cancelAll takes, so no task can start unseen by a cancel
+    private final Object lock = new Object();
+    private int generation;
+    private volatile TaskControl running;
+    private volatile String runningName;
+
+    public <T> void submit(String name, Task<T> task, Consumer<T> onDone, Consumer<Throwable> onError) {
+        int submitted;
+        synchronized (lock) {
+            submitted = generation;
+        }
+        queued.incrementAndGet();
+        executor.execute(() -> {
+            queued.decrementAndGet();
+            TaskControl control = new TaskControl();
+            synchronized (lock) {
+                if (submitted != generation) {
+                    SwingUtilities.invokeLater(() -> onError.accept(new CancellationException()));
+                    return;
+                }
+                runningName = name;
+                running = control;
+            }
+            control.runAs(() -> {
+                try {
+                    T result = task.run(control);
+                    SwingUtilities.invokeLater(() -> onDone.accept(result));
+                } catch (Throwable e) {
+                    SwingUtilities.invokeLater(() -> onError.accept(e));
+                } finally {
+                    running = null;
+                    runningName = null;
+                }
+            });
+        });
+    }
+
+    // Stops the running task at its next checkpoint and drops the queued ones; false if there were none
+    public boolean cancelAll() {
+        TaskControl control;
+        synchronized (lock) {
+            control = running;
+            generation++;
+        }
+        boolean any = control != null || queued.get() > 0;
+        if (control != null) {
+            control.cancel();
+        }
+        return any;
+    }
+
+    public TaskControl getRunning() {
+        return running;
+    }
+
+    public String getRunningName() {
+        return runningName;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    // Runs body on the event thread and waits for its result; from the event thread itself it just runs it
+    public static <T> T onEventThread(Supplier<T> body) throws InterruptedException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            return body.get();
+        }
+        Object[] result = new Object[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> result[0] = body.get());
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+}
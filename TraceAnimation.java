@@ -0,0 +1,48 @@
+// Plays an AlgorithmTrace back at a steady rate of events per second. The trace is recorded once, off the event
+// thread, and playback only moves a cursor through it; the canvas draws the events the cursor has passed
+public abstract class TraceAnimation implements GraphAnimation {
+
+    // Without a duration small searches play at a few events a second and big ones take at most MAX_SECONDS
+    private static final double EVENTS_PER_SECOND = 5;
+    private static final double MAX_SECONDS = 20;
+
+    private final AlgorithmTrace trace;
+    private final double seconds;
+    private final double eventsPerNano;
+    private long startedAt = -1;
+    private int cursor;
+
+    // A duration of 0 or less picks one from the trace's length
+    protected TraceAnimation(AlgorithmTrace trace, double seconds) {
+        this.trace = trace;
+        this.seconds = seconds > 0 ? seconds : Math.min(MAX_SECONDS, Math.max(1, trace.size() / EVENTS_PER_SECOND));
+        this.eventsPerNano = trace.size() / this.seconds / 1e9;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public AlgorithmTrace getTrace() {
+        return trace;
+    }
+
+    // Events played so far
+    public int getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public void advanceAnimation() {
+        long now = System.nanoTime();
+        if (startedAt < 0) {
+            startedAt = now;
+        }
+        cursor = (int) Math.min(trace.size(), 1 + (long) ((now - startedAt) * eventsPerNano));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return cursor >= trace.size();
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Arrays;
+
+// Per-thread scratch arrays reused by every search; an entry is only valid while mark[v] == epoch
+public class TraversalWorkspace {
+
+    private static final ThreadLocal<TraversalWorkspace> CURRENT = ThreadLocal.withInitial(TraversalWorkspace::new);
+
+    int[] mark = new int[0];
+    int epoch;
+    int[] parent = new int[0];
+    long[] dist = new long[0];
+    int[] hops = new int[0];
+    int[] queue = new int[0];
+    int[] stack = new int[0];
+    IndexedDaryHeap heap = new IndexedDaryHeap(0);
+
+    public static TraversalWorkspace get() {
+        return CURRENT.get();
+    }
+
+    // Grows the arrays if needed and starts a new epoch, which clears every mark at once
+    public TraversalWorkspace prepare(int numVertex, int stackSize) {
+        if (mark.length < numVertex) {
+            int capacity = Math.max(numVertex, mark.length * 2);
+            mark = new int[capacity];
+            parent = new int[capacity];
+            dist = new long[capacity];
+            hops = new int[capacity];
+            queue = new int[capacity];
+            heap = new IndexedDaryHeap(capacity);
+            epoch = 0;
+        }
+        if (stack.length < stackSize) {
+            stack = new int[Math.max(stackSize, stack.length * 2)];
+        }
+        heap.clear();
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        return this;
+    }
+
+    public boolean isMarked(int v) {
+        return mark[v] == epoch;
+    }
+
+    // Copies the marked entries into a tree the caller can keep after the workspace is reused
+    public ShortestPathTree toTree(int source, int numVertex) {
+        int[] treeParent = new int[numVertex];
+        long[] treeDist = new long[numVertex];
+        int[] treeHops = new int[numVertex];
+        for (int v = 0; v < numVertex; v++) {
+            if (mark[v] == epoch) {
+                treeParent[v] = parent[v];
+                treeDist[v] = dist[v];
+                treeHops[v] = hops[v];
+            } else {
+                treeParent[v] = -1;
+                treeDist[v] = ShortestPathTree.UNREACHABLE;
+                treeHops[v] = -1;
+            }
+        }
+        return new ShortestPathTree(source, treeParent, treeDist, treeHops);
+    }
+}
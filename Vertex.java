@@ -1,11 +1,11 @@
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.Objects;
 
 public class Vertex implements Comparable<Vertex> {
 
     private int id;
     private final ArrayList<Edge> edges;
+    private final ArrayList<Edge> inEdges;
     private boolean visited;
     private boolean highlighted;
     private Point position;
@@ -13,6 +13,7 @@ public class Vertex implements Comparable<Vertex> {
     public Vertex(int id) {
         this.id = id;
         this.edges = new ArrayList<>();
+        this.inEdges = new ArrayList<>();
         this.visited = false;
         this.highlighted = false;
     }
@@ -29,6 +30,10 @@ public class Vertex implements Comparable<Vertex> {
         return edges;
     }
 
+    public ArrayList<Edge> getInEdges() {
+        return inEdges;
+    }
+
     public void addEdge(Edge edge) {
         edges.add(edge);
     }
@@ -76,17 +81,4 @@ public class Vertex implements Comparable<Vertex> {
     public int compareTo(Vertex o) {
         return Integer.compare(id, o.id);
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Vertex vertex = (Vertex) o;
-        return id == vertex.id;
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(id);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package graphcanvas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Stack;
+
+// Searches as they were before Graph delegated to CsrGraph and before the indexed heap, kept to compare against
+final class Baselines {
+
+    private Baselines() {
+    }
+
+    static List<Integer> objectBfs(Graph graph, int start, int end) {
+        List<Vertex> vertices = graph.getVertices();
+        Queue<Vertex> queue = new LinkedList<>();
+        boolean[] visited = new boolean[vertices.size()];
+        int[] parent = new int[vertices.size()];
+        Arrays.fill(parent, -1);
+
+        queue.add(vertices.get(start));
+        visited[start] = true;
+
+        while (!queue.isEmpty()) {
+            Vertex current = queue.poll();
+            int u = current.getId();
+            if (u == end) {
+                return CsrGraph.buildPath(parent, end);
+            }
+            for (Edge edge : current.getEdges()) {
+                int v = edge.getTo().getId();
+                if (!visited[v]) {
+                    queue.add(vertices.get(v));
+                    visited[v] = true;
+                    parent[v] = u;
+                }
+            }
+        }
+        return null;
+    }
+
+    static List<Integer> objectDfs(Graph graph, int start, int end) {
+        List<Vertex> vertices = graph.getVertices();
+        Stack<Vertex> stack = new Stack<>();
+        boolean[] visited = new boolean[vertices.size()];
+        int[] parent = new int[vertices.size()];
+        Arrays.fill(parent, -1);
+
+        stack.push(vertices.get(start));
+
+        while (!stack.isEmpty()) {
+            Vertex current = stack.pop();
+            int u = current.getId();
+            if (visited[u]) continue;
+            visited[u] = true;
+            if (u == end) {
+                return CsrGraph.buildPath(parent, end);
+            }
+            List<Edge> edges = new ArrayList<>(current.getEdges());
+            edges.sort(Comparator.comparingInt(e -> e.getTo().getId()));
+            for (Edge edge : edges) {
+                int v = edge.getTo().getId();
+                if (!visited[v]) {
+                    stack.push(vertices.get(v));
+                    parent[v] = u;
+                }
+            }
+        }
+        return null;
+    }
+
+    static List<Integer> objectDijkstra(Graph graph, int start, int end) {
+        List<Vertex> vertices = graph.getVertices();
+        int n = vertices.size();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        boolean[] visited = new boolean[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        dist[start] = 0;
+
+        PriorityQueue<Vertex> pq = new PriorityQueue<>(Comparator.comparingInt(v -> dist[v.getId()]));
+        pq.add(vertices.get(start));
+
+        while (!pq.isEmpty()) {
+            Vertex current = pq.poll();
+            int u = current.getId();
+            if (visited[u]) continue;
+            visited[u] = true;
+            for (Edge edge : current.getEdges()) {
+                int v = edge.getTo().getId();
+                int weight = edge.getWeight();
+                if (dist[u] + weight < dist[v]) {
+                    dist[v] = dist[u] + weight;
+                    parent[v] = u;
+                    pq.add(vertices.get(v));
+                }
+            }
+        }
+        return dist[end] == Integer.MAX_VALUE ? null : CsrGraph.buildPath(parent, end);
+    }
+
+    // Dijkstra on the CSR arrays with a lazy-deletion PriorityQueue, which the indexed 4-ary heap replaced
+    static List<Integer> lazyDijkstra(CsrGraph csr, int start, int end) {
+        int n = csr.getNumVertex();
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int[] weights = csr.getWeights();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        boolean[] visited = new boolean[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        dist[start] = 0;
+
+        PriorityQueue<Integer> pq = new PriorityQueue<>(Comparator.comparingInt(v -> dist[v]));
+        pq.add(start);
+
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            if (visited[u]) continue;
+            visited[u] = true;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (dist[u] + weights[i] < dist[v]) {
+                    dist[v] = dist[u] + weights[i];
+                    parent[v] = u;
+                    pq.add(v);
+                }
+            }
+        }
+        return dist[end] == Integer.MAX_VALUE ? null : CsrGraph.buildPath(parent, end);
+    }
+}
@@ -0,0 +1,99 @@
+package graphcanvas;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compares two JMH csv result files row by row: CompareResults {baseline.csv} {current.csv}
+// Scores are matched on benchmark and parameters, so the gc profiler rows are compared too
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults {baseline.csv} {current.csv}");
+            System.exit(2);
+        }
+        Map<String, String[]> baseline = read(Path.of(args[0]));
+        Map<String, String[]> current = read(Path.of(args[1]));
+
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, String[]> entry : current.entrySet()) {
+            String[] now = entry.getValue();
+            String[] before = baseline.get(entry.getKey());
+            double score = Double.parseDouble(now[1]);
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", now[2]);
+                continue;
+            }
+            double old = Double.parseDouble(before[1]);
+            String change = old == 0 ? "-" : String.format("%+.1f%%", (score - old) / old * 100);
+            System.out.printf("%-80s %14.3f %14.3f %9s  %s%n", entry.getKey(), old, score, change, now[2]);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-80s %14s %14s %9s%n", key, "", "-", "missing");
+            }
+        }
+    }
+
+    // Key is the benchmark with its parameters; the value holds the key, the score and the unit
+    private static Map<String, String[]> read(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty()) {
+            throw new IOException("Empty result file: " + path);
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        if (benchmark < 0 || score < 0 || unit < 0) {
+            throw new IOException("Not a JMH csv result file: " + path);
+        }
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            List<String> fields = split(line);
+            StringBuilder key = new StringBuilder(fields.get(benchmark));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && !fields.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+                }
+            }
+            rows.put(key.toString(), new String[] {key.toString(), fields.get(score), fields.get(unit)});
+        }
+        return rows;
+    }
+
+    // Fields are comma separated and optionally quoted, with "" standing for a quote
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
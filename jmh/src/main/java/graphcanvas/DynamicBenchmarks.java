@@ -0,0 +1,47 @@
+package graphcanvas;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One weight edit followed by a shortest-path query from vertex 0, with the tree recomputed from scratch
+// or repaired in place by DynamicSssp
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Dgraph.stats=false"})
+public class DynamicBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Tracked {
+        DynamicSssp tree;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphBenchmarks.Shaped shaped) {
+            tree = new DynamicSssp(shaped.graph, 0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            tree.close();
+        }
+    }
+
+    @Benchmark
+    public ShortestPathTree editThenRecompute(GraphBenchmarks.Shaped shaped) {
+        edit(shaped);
+        return shaped.graph.dijkstraTree(0);
+    }
+
+    @Benchmark
+    public long editThenRepair(GraphBenchmarks.Shaped shaped, Tracked tracked) {
+        int query = edit(shaped);
+        return tracked.tree.getDistance(shaped.ends[query]);
+    }
+
+    private static int edit(GraphBenchmarks.Shaped shaped) {
+        int query = shaped.nextQuery();
+        shaped.graph.setWeight(shaped.edges[query % shaped.edges.length], shaped.next % 99 + 1);
+        return query;
+    }
+}
@@ -0,0 +1,53 @@
+package graphcanvas;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Writing and reading the binary graph file, and building each in-memory form from it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Dgraph.stats=false"})
+public class FileBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class SavedGraph {
+        Path path;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphBenchmarks.Shaped shaped) throws IOException {
+            path = Files.createTempFile("graph", ".gcg");
+            GraphFile.write(path, shaped.contents);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public Path write(GraphBenchmarks.Shaped shaped, SavedGraph saved) throws IOException {
+        GraphFile.write(saved.path, shaped.contents);
+        return saved.path;
+    }
+
+    @Benchmark
+    public GraphFile.Contents read(SavedGraph saved) throws IOException {
+        return GraphFile.read(saved.path);
+    }
+
+    @Benchmark
+    public CsrGraph loadCsr(SavedGraph saved) throws IOException {
+        return GraphFile.loadCsr(saved.path);
+    }
+
+    @Benchmark
+    public Graph load(SavedGraph saved) throws IOException {
+        return GraphFile.load(saved.path);
+    }
+}
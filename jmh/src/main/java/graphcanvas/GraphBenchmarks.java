@@ -0,0 +1,196 @@
+package graphcanvas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Graph operations over every size and shape; gradle :jmh:jmh runs them with the gc profiler
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Dgraph.stats=false"})
+public class GraphBenchmarks {
+
+    private static final long SEED = 42;
+    private static final int QUERIES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Sizes {
+        // Vertices. Complete graphs stop at GraphShapes.COMPLETE_LIMIT, so their runs at the larger size fail
+        // in setup and leave no result
+        @Param({"1000", "100000"})
+        public int size;
+    }
+
+    // One shared graph, plus the queries and edges the read-mostly benchmarks cycle through
+    @State(Scope.Benchmark)
+    public static class Shaped {
+        @Param({"sparse", "grid", "complete", "powerlaw"})
+        public String shape;
+
+        GraphFile.Contents contents;
+        Graph graph;
+        int[] starts = new int[QUERIES];
+        int[] ends = new int[QUERIES];
+        Edge[] edges;
+        int[] victims;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Sizes sizes) {
+            contents = GraphShapes.create(shape, sizes.size, SEED);
+            graph = GraphFile.toGraph(contents);
+            int n = contents.numVertex();
+            Random random = new Random(SEED);
+            for (int i = 0; i < QUERIES; i++) {
+                starts[i] = random.nextInt(n);
+                ends[i] = random.nextInt(n);
+            }
+            List<Edge> all = graph.getEdges();
+            edges = new Edge[Math.min(QUERIES, all.size())];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = all.get(random.nextInt(all.size()));
+            }
+            // A tenth of the vertices, distinct, in random order
+            int[] order = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            for (int v = n - 1; v > 0; v--) {
+                int other = random.nextInt(v + 1);
+                int swap = order[v];
+                order[v] = order[other];
+                order[other] = swap;
+            }
+            victims = Arrays.copyOf(order, Math.max(1, n / 10));
+            // Snapshot built up front, so no traversal pays for it
+            graph.freeze();
+        }
+
+        int nextQuery() {
+            return next++ & (QUERIES - 1);
+        }
+    }
+
+    // The mutation benchmarks each start from a fresh graph, built outside the measurement
+    @State(Scope.Thread)
+    public static class EmptyGraph {
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            graph = new Graph(false, true, new ArrayList<>());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UnconnectedGraph {
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp(Shaped shaped) {
+            graph = GraphFile.toGraph(withoutEdges(shaped.contents));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FullGraph {
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp(Shaped shaped) {
+            graph = GraphFile.toGraph(shaped.contents);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Clique {
+        // connectAllVertices is quadratic, so it gets its own, smaller sizes
+        @Param({"100", "500"})
+        public int vertices;
+
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            graph = new Graph(false, true, new ArrayList<>());
+            for (int v = 0; v < vertices; v++) {
+                graph.addVertex(new Vertex(v));
+            }
+        }
+    }
+
+    private static GraphFile.Contents withoutEdges(GraphFile.Contents contents) {
+        return new GraphFile.Contents(contents.isDirected(), contents.isWeighted(), contents.numVertex(),
+                contents.x(), contents.y(), 0, new int[0], new int[0], new int[0]);
+    }
+
+    @Benchmark
+    public Graph addVertex(Sizes sizes, EmptyGraph empty) {
+        Graph graph = empty.graph;
+        for (int v = 0; v < sizes.size; v++) {
+            graph.addVertex(new Vertex(v));
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public Graph addEdge(Shaped shaped, UnconnectedGraph unconnected) {
+        Graph graph = unconnected.graph;
+        GraphFile.Contents contents = shaped.contents;
+        for (int e = 0; e < contents.numEdge(); e++) {
+            graph.addEdge(graph.getVertex(contents.from()[e]), graph.getVertex(contents.to()[e]));
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public Graph removeVertex(Shaped shaped, FullGraph full) {
+        Graph graph = full.graph;
+        for (int v : shaped.victims) {
+            graph.removeVertex(graph.getVertex(v));
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public Graph setWeight(Shaped shaped) {
+        Edge edge = shaped.edges[shaped.nextQuery() % shaped.edges.length];
+        shaped.graph.setWeight(edge, shaped.next % 99 + 1);
+        return shaped.graph;
+    }
+
+    @Benchmark
+    public Graph randomizeWeights(Shaped shaped) {
+        shaped.graph.randomizeWeights(99);
+        return shaped.graph;
+    }
+
+    @Benchmark
+    public Graph connectAllVertices(Clique clique) {
+        clique.graph.connectAllVertices();
+        return clique.graph;
+    }
+
+    @Benchmark
+    public List<Integer> bfs(Shaped shaped) {
+        int query = shaped.nextQuery();
+        return shaped.graph.bfs(shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public List<Integer> dfs(Shaped shaped) {
+        int query = shaped.nextQuery();
+        return shaped.graph.dfs(shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public List<Integer> dijkstra(Shaped shaped) {
+        int query = shaped.nextQuery();
+        return shaped.graph.dijkstra(shaped.starts[query], shaped.ends[query]);
+    }
+}
@@ -0,0 +1,130 @@
+package graphcanvas;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Undirected weighted test graphs of the benchmarked shapes, as edge lists with one entry per pair
+final class GraphShapes {
+
+    // A complete graph on more vertices than this would not fit in memory as objects
+    static final int COMPLETE_LIMIT = 1000;
+    private static final int SPARSE_DEGREE = 8;
+    private static final int POWER_LAW_LINKS = 4;
+
+    private GraphShapes() {
+    }
+
+    static GraphFile.Contents create(String shape, int size, long seed) {
+        Random random = new Random(seed);
+        return switch (shape) {
+            case "sparse" -> sparse(size, random);
+            case "grid" -> grid(size, random);
+            case "complete" -> complete(size, random);
+            case "powerlaw" -> powerLaw(size, random);
+            default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+        };
+    }
+
+    // Uniformly random pairs, average degree SPARSE_DEGREE
+    private static GraphFile.Contents sparse(int n, Random random) {
+        Edges edges = new Edges(n * SPARSE_DEGREE / 2);
+        while (edges.count < edges.from.length) {
+            edges.add(random.nextInt(n), random.nextInt(n), random);
+        }
+        return edges.toContents(n, random);
+    }
+
+    // 4-neighbour lattice, as square as the size allows
+    private static GraphFile.Contents grid(int n, Random random) {
+        int width = (int) Math.ceil(Math.sqrt(n));
+        Edges edges = new Edges(2 * n);
+        for (int v = 0; v < n; v++) {
+            if ((v + 1) % width != 0 && v + 1 < n) {
+                edges.add(v, v + 1, random);
+            }
+            if (v + width < n) {
+                edges.add(v, v + width, random);
+            }
+        }
+        return edges.toContents(n, random);
+    }
+
+    // Refused above the limit rather than shrunk, so no result is reported under a size it did not run at
+    private static GraphFile.Contents complete(int n, Random random) {
+        if (n > COMPLETE_LIMIT) {
+            throw new IllegalArgumentException("Complete graphs stop at " + COMPLETE_LIMIT + " vertices, not " + n);
+        }
+        Edges edges = new Edges(n * (n - 1) / 2);
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                edges.add(u, v, random);
+            }
+        }
+        return edges.toContents(n, random);
+    }
+
+    // Barabasi-Albert preferential attachment: each new vertex links to POWER_LAW_LINKS vertices
+    // picked in proportion to their degree, by sampling the endpoints of the edges so far
+    private static GraphFile.Contents powerLaw(int n, Random random) {
+        Edges edges = new Edges(n * POWER_LAW_LINKS);
+        int seedVertices = Math.min(n, POWER_LAW_LINKS + 1);
+        for (int u = 0; u < seedVertices; u++) {
+            for (int v = u + 1; v < seedVertices; v++) {
+                edges.add(u, v, random);
+            }
+        }
+        for (int v = seedVertices; v < n; v++) {
+            int before = edges.count;
+            for (int link = 0; link < POWER_LAW_LINKS; link++) {
+                int e = random.nextInt(before);
+                edges.add(v, random.nextBoolean() ? edges.from[e] : edges.to[e], random);
+            }
+        }
+        return edges.toContents(n, random);
+    }
+
+    private static final class Edges {
+        final Set<Long> seen;
+        int[] from;
+        int[] to;
+        int[] weights;
+        int count;
+
+        Edges(int expected) {
+            seen = new HashSet<>(expected * 2);
+            from = new int[expected];
+            to = new int[expected];
+            weights = new int[expected];
+        }
+
+        // Loops and repeated pairs are dropped, as Graph.addEdge would
+        void add(int u, int v, Random random) {
+            if (u == v) return;
+            int low = Math.min(u, v);
+            int high = Math.max(u, v);
+            if (!seen.add(EdgeIndex.key(low, high))) return;
+            if (count == from.length) {
+                int capacity = Math.max(16, count * 2);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            from[count] = low;
+            to[count] = high;
+            weights[count] = random.nextInt(99) + 1;
+            count++;
+        }
+
+        GraphFile.Contents toContents(int n, Random random) {
+            int[] x = new int[n];
+            int[] y = new int[n];
+            for (int v = 0; v < n; v++) {
+                x[v] = random.nextInt(1000);
+                y[v] = random.nextInt(1000);
+            }
+            return new GraphFile.Contents(false, true, n, x, y, count, from, to, weights);
+        }
+    }
+}
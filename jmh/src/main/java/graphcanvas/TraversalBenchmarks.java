@@ -0,0 +1,90 @@
+package graphcanvas;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// The CSR searches against the object-model and lazy-heap baselines, and the alternative BFS and SSSP
+// algorithms against the sequential ones, on the same graphs as GraphBenchmarks
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Dgraph.stats=false"})
+public class TraversalBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"1", "4"})
+        public int threads;
+
+        ForkJoinPool pool;
+        long delta;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphBenchmarks.Shaped shaped) {
+            pool = new ForkJoinPool(threads);
+            delta = DeltaStepping.defaultDelta(shaped.graph.freeze());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public CsrGraph freeze(GraphBenchmarks.Shaped shaped) {
+        return CsrGraph.of(shaped.graph);
+    }
+
+    @Benchmark
+    public List<Integer> objectBfs(GraphBenchmarks.Shaped shaped) {
+        int query = shaped.nextQuery();
+        return Baselines.objectBfs(shaped.graph, shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public List<Integer> objectDfs(GraphBenchmarks.Shaped shaped) {
+        int query = shaped.nextQuery();
+        return Baselines.objectDfs(shaped.graph, shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public List<Integer> objectDijkstra(GraphBenchmarks.Shaped shaped) {
+        int query = shaped.nextQuery();
+        return Baselines.objectDijkstra(shaped.graph, shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public List<Integer> lazyDijkstra(GraphBenchmarks.Shaped shaped) {
+        int query = shaped.nextQuery();
+        return Baselines.lazyDijkstra(shaped.graph.freeze(), shaped.starts[query], shaped.ends[query]);
+    }
+
+    @Benchmark
+    public ShortestPathTree bfsTree(GraphBenchmarks.Shaped shaped) {
+        return shaped.graph.freeze().bfsTree(shaped.starts[shaped.nextQuery()]);
+    }
+
+    @Benchmark
+    public ShortestPathTree directionOptimizingBfs(GraphBenchmarks.Shaped shaped) {
+        return DirectionOptimizingBfs.run(shaped.graph.freeze(), shaped.starts[shaped.nextQuery()]);
+    }
+
+    @Benchmark
+    public ShortestPathTree parallelBfs(GraphBenchmarks.Shaped shaped, Pool pool) {
+        return ParallelBfs.run(shaped.graph.freeze(), shaped.starts[shaped.nextQuery()], pool.pool);
+    }
+
+    @Benchmark
+    public ShortestPathTree dijkstraTree(GraphBenchmarks.Shaped shaped) {
+        return shaped.graph.freeze().dijkstraTree(shaped.starts[shaped.nextQuery()]);
+    }
+
+    @Benchmark
+    public ShortestPathTree deltaStepping(GraphBenchmarks.Shaped shaped, Pool pool) {
+        return DeltaStepping.run(shaped.graph.freeze(), shaped.starts[shaped.nextQuery()], pool.delta, pool.pool);
+    }
+}